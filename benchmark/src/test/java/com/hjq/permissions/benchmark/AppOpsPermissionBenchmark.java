@@ -0,0 +1,121 @@
+package com.hjq.permissions.benchmark;
+
+import android.app.AppOpsManager;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.pm.ApplicationInfo;
+import com.hjq.permissions.permission.base.BasePermission;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : AppOps 权限状态判断的基准测试
+ *
+ *             AppOpsManager 是一个空实现的替身（所有方法都返回默认值），所以这里测出来的只是框架本身的开销，
+ *             其中 reflectOpFieldUncached 是缓存 Op 字段值之前的做法，用来和缓存之后的做法做对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AppOpsPermissionBenchmark {
+
+    /** 需要通过反射获取的 Op 字段 */
+    private static final String OP_FIELD_NAME = "OP_SYSTEM_ALERT_WINDOW";
+
+    /** 反射获取不到 Op 字段时的替补值 */
+    private static final int OP_DEFAULT_VALUE = 24;
+
+    private Context mContext;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        // AppOpsManager 没有公开的构造函数，只能跳过构造函数来创建
+        mContext = new StubAppOpsContext(UnsafeAccess.allocateInstance(AppOpsManager.class));
+    }
+
+    /**
+     * 通过 OPSTR 开头的字段判断（公开 API）
+     */
+    @Benchmark
+    public int getOpPermissionModeByOpStr() {
+        return BasePermission.getOpPermissionMode(mContext, AppOpsManager.OPSTR_PICTURE_IN_PICTURE);
+    }
+
+    /**
+     * 通过反射 OP 开头的字段判断（Op 字段值和 checkOpNoThrow 方法对象都已经缓存）
+     */
+    @Benchmark
+    public int getOpPermissionModeByOpField() {
+        return BasePermission.getOpPermissionMode(mContext, OP_FIELD_NAME, OP_DEFAULT_VALUE);
+    }
+
+    @Benchmark
+    public boolean isExistOpPermission() {
+        return BasePermission.isExistOpPermission(OP_FIELD_NAME);
+    }
+
+    /**
+     * 每次都重新反射 Op 字段（缓存之前的做法）
+     */
+    @Benchmark
+    public int reflectOpFieldUncached() {
+        try {
+            Field opField = Class.forName(AppOpsManager.class.getName()).getDeclaredField(OP_FIELD_NAME);
+            return (int) opField.get(Integer.class);
+        } catch (NoSuchFieldException e) {
+            return OP_DEFAULT_VALUE;
+        } catch (Exception e) {
+            return BasePermission.MODE_UNKNOWN;
+        }
+    }
+
+    /**
+     * 返回 AppOpsManager 替身的 Context
+     */
+    private static final class StubAppOpsContext extends ContextWrapper {
+
+        private final AppOpsManager mAppOpsManager;
+
+        private final ApplicationInfo mApplicationInfo = new ApplicationInfo();
+
+        private StubAppOpsContext(AppOpsManager appOpsManager) {
+            super(null);
+            mAppOpsManager = appOpsManager;
+            mApplicationInfo.uid = 10086;
+        }
+
+        @Override
+        public Object getSystemService(String name) {
+            if (Context.APP_OPS_SERVICE.equals(name)) {
+                return mAppOpsManager;
+            }
+            return null;
+        }
+
+        @Override
+        public ApplicationInfo getApplicationInfo() {
+            return mApplicationInfo;
+        }
+
+        @Override
+        public String getPackageName() {
+            return "com.hjq.permissions.benchmark";
+        }
+    }
+}
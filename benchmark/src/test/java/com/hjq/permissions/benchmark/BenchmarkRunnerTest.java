@@ -0,0 +1,45 @@
+package com.hjq.permissions.benchmark;
+
+import java.io.File;
+import java.util.Collection;
+import org.junit.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static org.junit.Assert.assertFalse;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 通过单元测试来运行 JMH 基准测试，并将结果以 JSON 格式输出到文件中
+ */
+public final class BenchmarkRunnerTest {
+
+    /** 基准测试结果的输出文件（由 build.gradle 传入） */
+    private static final String RESULT_FILE_PROPERTY = "jmh.result.file";
+
+    /** 只运行部分基准测试（由 build.gradle 传入，支持正则表达式） */
+    private static final String INCLUDE_PROPERTY = "jmh.include";
+
+    @Test
+    public void runBenchmarks() throws RunnerException {
+        File resultFile = new File(System.getProperty(RESULT_FILE_PROPERTY, "build/reports/jmh/results.json"));
+        File resultDir = resultFile.getParentFile();
+        if (resultDir != null && !resultDir.exists()) {
+            resultDir.mkdirs();
+        }
+        String include = System.getProperty(INCLUDE_PROPERTY, BenchmarkRunnerTest.class.getPackage().getName() + ".*Benchmark");
+        Options options = new OptionsBuilder()
+            .include(include)
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile.getAbsolutePath())
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+        assertFalse("No benchmark matched " + include, results.isEmpty());
+    }
+}
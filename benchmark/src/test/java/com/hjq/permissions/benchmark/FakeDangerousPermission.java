@@ -0,0 +1,58 @@
+package com.hjq.permissions.benchmark;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.hjq.permissions.permission.common.DangerousPermission;
+import com.hjq.permissions.tools.PermissionVersion;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 没有授予并且支持申请的模拟危险权限
+ *
+ *             在电脑的 JVM 上面 Build.VERSION.SDK_INT 为 0，框架内置的危险权限都会被当做不支持申请或者已经授予，
+ *             这样就测不到分组的逻辑了，所以需要用这个模拟的权限来代替
+ */
+public final class FakeDangerousPermission extends DangerousPermission {
+
+    /** 权限名称 */
+    @NonNull
+    private final String mPermissionName;
+    /** 权限组别 */
+    @Nullable
+    private final String mPermissionGroup;
+
+    public FakeDangerousPermission(@NonNull String permissionName, @Nullable String permissionGroup) {
+        mPermissionName = permissionName;
+        mPermissionGroup = permissionGroup;
+    }
+
+    @NonNull
+    @Override
+    public String getPermissionName() {
+        return mPermissionName;
+    }
+
+    @Nullable
+    @Override
+    public String getPermissionGroup() {
+        return mPermissionGroup;
+    }
+
+    @Override
+    public int getFromAndroidVersion() {
+        return PermissionVersion.ANDROID_6;
+    }
+
+    @Override
+    public boolean isSupportRequestPermission(@NonNull Context context) {
+        return true;
+    }
+
+    @Override
+    public boolean isGrantedPermission(@NonNull Context context, boolean skipRequest) {
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+package com.hjq.permissions.benchmark;
+
+import android.app.Application;
+import android.content.Context;
+import com.hjq.permissions.permission.PermissionLists;
+import com.hjq.permissions.permission.base.IPermission;
+import com.hjq.permissions.tools.PermissionApi;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 根据新权限添加旧权限的基准测试
+ *
+ *             在电脑的 JVM 上面 Build.VERSION.SDK_INT 为 0，相当于运行在最旧的系统上面，每个新权限都需要补充旧权限
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PermissionApiBenchmark {
+
+    private Context mContext;
+
+    private List<IPermission> mRequestPermissions;
+
+    @Setup
+    public void setup() {
+        mContext = new Application();
+        mRequestPermissions = new ArrayList<>();
+        mRequestPermissions.add(PermissionLists.getCameraPermission());
+        mRequestPermissions.add(PermissionLists.getPostNotificationsPermission());
+        mRequestPermissions.add(PermissionLists.getReadMediaImagesPermission());
+        mRequestPermissions.add(PermissionLists.getReadMediaVideoPermission());
+        mRequestPermissions.add(PermissionLists.getReadMediaAudioPermission());
+        mRequestPermissions.add(PermissionLists.getBluetoothScanPermission());
+        mRequestPermissions.add(PermissionLists.getNearbyWifiDevicesPermission());
+        mRequestPermissions.add(PermissionLists.getReadPhoneNumbersPermission());
+    }
+
+    @Benchmark
+    public List<IPermission> addOldPermissionsByNewPermissions() {
+        // 这个方法会修改传入的列表，所以每次都需要传入一个新的列表
+        List<IPermission> requestPermissions = new ArrayList<>(mRequestPermissions);
+        PermissionApi.addOldPermissionsByNewPermissions(mContext, requestPermissions);
+        return requestPermissions;
+    }
+}
@@ -0,0 +1,54 @@
+package com.hjq.permissions.benchmark;
+
+import com.hjq.permissions.permission.PermissionLists;
+import com.hjq.permissions.permission.PermissionNames;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 权限对象获取的基准测试
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PermissionListsBenchmark {
+
+    /**
+     * 获取无参的权限对象（命中缓存）
+     */
+    @Benchmark
+    public IPermission getCachedPermission() {
+        return PermissionLists.getCameraPermission();
+    }
+
+    /**
+     * 通过权限名称获取权限对象
+     */
+    @Benchmark
+    public IPermission byName() {
+        return PermissionLists.byName(PermissionNames.READ_MEDIA_VISUAL_USER_SELECTED);
+    }
+
+    /**
+     * 获取带参数的权限对象（不会纳入缓存，每次都会创建新的对象）
+     */
+    @Benchmark
+    public IPermission getParameterizedPermission() {
+        return PermissionLists.getNotificationServicePermission("benchmark");
+    }
+}
@@ -0,0 +1,91 @@
+package com.hjq.permissions.benchmark;
+
+import android.app.Application;
+import android.content.Context;
+import com.hjq.permissions.permission.PermissionLists;
+import com.hjq.permissions.permission.PermissionNames;
+import com.hjq.permissions.permission.base.IPermission;
+import com.hjq.permissions.permission.common.StandardDangerousPermission;
+import com.hjq.permissions.tools.PermissionVersion;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 多线程同时查询权限状态时，获取权限对象的竞争开销
+ *
+ *             lruCacheBaseline 模拟的是之前用 LruCache 存放权限对象的做法（LruCache 的 get 方法会锁住整个对象，
+ *             并且内部用的是按访问顺序排序的 LinkedHashMap），用来和现在无锁的 AtomicReferenceArray 做对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PermissionListsContentionBenchmark {
+
+    /** 权限对象缓存的最大数量（和之前 LruCache 的容量一致） */
+    private static final int LRU_CACHE_MAX_SIZE = 54;
+
+    private Context mContext;
+
+    /** 之前的权限对象缓存 */
+    private Map<String, IPermission> mLruCache;
+
+    @Setup
+    public void setup() {
+        mContext = new Application();
+        mLruCache = new LinkedHashMap<>(0, 0.75f, true);
+        mLruCache.put(PermissionNames.CAMERA, PermissionLists.getCameraPermission());
+    }
+
+    @Benchmark
+    public IPermission getCachedPermission() {
+        return PermissionLists.getCameraPermission();
+    }
+
+    @Benchmark
+    public IPermission byName() {
+        return PermissionLists.byName(PermissionNames.CAMERA);
+    }
+
+    /**
+     * 获取权限对象之后再判断权限状态（电脑的 JVM 上面判断权限状态没有跨进程调用的开销，所以测出来的基本上就是获取权限对象的竞争开销）
+     */
+    @Benchmark
+    public boolean isGrantedPermission() {
+        return PermissionLists.getCameraPermission().isGrantedPermission(mContext);
+    }
+
+    @Benchmark
+    public IPermission lruCacheBaseline() {
+        synchronized (mLruCache) {
+            IPermission permission = mLruCache.get(PermissionNames.CAMERA);
+            if (permission != null) {
+                return permission;
+            }
+            permission = new StandardDangerousPermission(PermissionNames.CAMERA, PermissionVersion.ANDROID_6);
+            mLruCache.put(PermissionNames.CAMERA, permission);
+            if (mLruCache.size() > LRU_CACHE_MAX_SIZE) {
+                mLruCache.remove(mLruCache.keySet().iterator().next());
+            }
+            return permission;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.hjq.permissions.benchmark;
+
+import com.hjq.permissions.manager.PermissionRequestCodeManager;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 请求码占用和释放的基准测试
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PermissionRequestCodeManagerBenchmark {
+
+    /**
+     * Support 包 Fragment 的请求码范围
+     */
+    @Benchmark
+    public int generateAndReleaseByLowValue() {
+        int requestCode = PermissionRequestCodeManager.generateRandomRequestCode(PermissionRequestCodeManager.REQUEST_CODE_LIMIT_LOW_VALUE);
+        PermissionRequestCodeManager.releaseRequestCode(requestCode);
+        return requestCode;
+    }
+
+    /**
+     * App 包 Fragment 的请求码范围
+     */
+    @Benchmark
+    public int generateAndReleaseByHighValue() {
+        int requestCode = PermissionRequestCodeManager.generateRandomRequestCode(PermissionRequestCodeManager.REQUEST_CODE_LIMIT_HIGH_VALUE);
+        PermissionRequestCodeManager.releaseRequestCode(requestCode);
+        return requestCode;
+    }
+}
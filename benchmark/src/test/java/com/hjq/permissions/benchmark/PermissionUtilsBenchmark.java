@@ -0,0 +1,107 @@
+package com.hjq.permissions.benchmark;
+
+import com.hjq.permissions.permission.PermissionLists;
+import com.hjq.permissions.permission.PermissionNames;
+import com.hjq.permissions.permission.base.IPermission;
+import com.hjq.permissions.tools.PermissionUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 权限名称比较和权限列表查找的基准测试
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PermissionUtilsBenchmark {
+
+    private String mPermissionName;
+
+    /** 内容相同但不是同一个对象的权限名称（不会命中字符串的同一性判断） */
+    private String mSamePermissionName;
+
+    /** 长度相同，只有末尾几个字符不同的权限名称（最能体现从前往后比较和从后往前比较的差距） */
+    private String mOtherPermissionName;
+
+    private List<IPermission> mPermissions;
+
+    private List<String> mPermissionNames;
+
+    @Setup
+    public void setup() {
+        mPermissionName = PermissionNames.READ_CONTACTS;
+        mSamePermissionName = new String(PermissionNames.READ_CONTACTS.toCharArray());
+        mOtherPermissionName = PermissionNames.READ_CALENDAR;
+
+        mPermissions = new ArrayList<>();
+        mPermissions.add(PermissionLists.getCameraPermission());
+        mPermissions.add(PermissionLists.getRecordAudioPermission());
+        mPermissions.add(PermissionLists.getAccessFineLocationPermission());
+        mPermissions.add(PermissionLists.getAccessCoarseLocationPermission());
+        mPermissions.add(PermissionLists.getReadCalendarPermission());
+        mPermissions.add(PermissionLists.getWriteCalendarPermission());
+        mPermissions.add(PermissionLists.getReadPhoneStatePermission());
+        mPermissions.add(PermissionLists.getReadSmsPermission());
+        mPermissions.add(PermissionLists.getPostNotificationsPermission());
+        mPermissions.add(PermissionLists.getReadContactsPermission());
+        mPermissionNames = PermissionUtils.convertPermissionList(mPermissions);
+    }
+
+    @Benchmark
+    public boolean equalsStringSame() {
+        return PermissionUtils.equalsString(mPermissionName, mSamePermissionName);
+    }
+
+    @Benchmark
+    public boolean equalsStringDifferent() {
+        return PermissionUtils.equalsString(mPermissionName, mOtherPermissionName);
+    }
+
+    @Benchmark
+    public boolean reverseEqualsStringSame() {
+        return PermissionUtils.reverseEqualsString(mPermissionName, mSamePermissionName);
+    }
+
+    @Benchmark
+    public boolean reverseEqualsStringDifferent() {
+        return PermissionUtils.reverseEqualsString(mPermissionName, mOtherPermissionName);
+    }
+
+    /**
+     * 要查找的权限在列表的最后一个
+     */
+    @Benchmark
+    public boolean containsPermissionByObject() {
+        return PermissionUtils.containsPermission(mPermissions, PermissionLists.getReadContactsPermission());
+    }
+
+    /**
+     * 要查找的权限不在列表中（需要遍历整个列表）
+     */
+    @Benchmark
+    public boolean containsPermissionByNameMissed() {
+        return PermissionUtils.containsPermission(mPermissions, PermissionNames.WRITE_CONTACTS);
+    }
+
+    @Benchmark
+    public boolean containsPermissionByStringList() {
+        return PermissionUtils.containsPermission(mPermissionNames, PermissionNames.READ_CONTACTS);
+    }
+}
@@ -0,0 +1,73 @@
+package com.hjq.permissions.benchmark;
+
+import android.app.Activity;
+import com.hjq.permissions.core.GrantStateSnapshot;
+import com.hjq.permissions.core.RequestPermissionLogicPresenter;
+import com.hjq.permissions.permission.PermissionGroups;
+import com.hjq.permissions.permission.PermissionNames;
+import com.hjq.permissions.permission.base.IPermission;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 未授权权限分组（按照权限组拆分成多次申请）的基准测试
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestPermissionLogicPresenterBenchmark {
+
+    private Activity mActivity;
+
+    private List<IPermission> mRequestPermissions;
+
+    /** RequestPermissionLogicPresenter.getUnauthorizedPermissions 方法（私有方法，只能通过反射调用） */
+    private Method mGetUnauthorizedPermissionsMethod;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        mActivity = new Activity();
+        // 多个权限组交错在一起，分组的时候需要把同组的权限挑出来
+        mRequestPermissions = new ArrayList<>();
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.CAMERA, null));
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.READ_CONTACTS, PermissionGroups.CONTACTS));
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.READ_CALENDAR, PermissionGroups.CALENDAR));
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.ACCESS_FINE_LOCATION, PermissionGroups.LOCATION));
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.WRITE_CONTACTS, PermissionGroups.CONTACTS));
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.WRITE_CALENDAR, PermissionGroups.CALENDAR));
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.ACCESS_COARSE_LOCATION, PermissionGroups.LOCATION));
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.READ_SMS, PermissionGroups.SMS));
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.RECEIVE_SMS, PermissionGroups.SMS));
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.GET_ACCOUNTS, PermissionGroups.CONTACTS));
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.SEND_SMS, PermissionGroups.SMS));
+        mRequestPermissions.add(new FakeDangerousPermission(PermissionNames.RECORD_AUDIO, null));
+
+        mGetUnauthorizedPermissionsMethod = RequestPermissionLogicPresenter.class.getDeclaredMethod("getUnauthorizedPermissions",
+            Activity.class, List.class, GrantStateSnapshot.class);
+        mGetUnauthorizedPermissionsMethod.setAccessible(true);
+    }
+
+    @Benchmark
+    public Object getUnauthorizedPermissions() throws ReflectiveOperationException {
+        // 授予状态快照只在一次请求的处理阶段内有效，所以每次都需要创建新的
+        return mGetUnauthorizedPermissionsMethod.invoke(null, mActivity, mRequestPermissions, new GrantStateSnapshot(mActivity));
+    }
+}
@@ -0,0 +1,72 @@
+package com.hjq.permissions.benchmark;
+
+import android.os.Build;
+import com.hjq.permissions.tools.PhoneRomUtils;
+import com.hjq.permissions.tools.RomProfile;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 厂商系统判断的基准测试
+ *
+ *             createRomProfile 是每次都重新判断一遍的开销（系统属性已经缓存，不包含读取系统属性的耗时），
+ *             用来和复用 RomProfile 之后的开销做对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RomProfileBenchmark {
+
+    /** PhoneRomUtils.createRomProfile 方法（私有方法，只能通过反射调用） */
+    private Method mCreateRomProfileMethod;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        // 模拟小米手机（电脑的 JVM 上面这两个字段为 null）
+        UnsafeAccess.putStaticObject(Build.class, "BRAND", "Xiaomi");
+        UnsafeAccess.putStaticObject(Build.class, "MANUFACTURER", "Xiaomi");
+        mCreateRomProfileMethod = PhoneRomUtils.class.getDeclaredMethod("createRomProfile");
+        mCreateRomProfileMethod.setAccessible(true);
+        // 先让系统属性缓存起来
+        PhoneRomUtils.getRomProfile();
+    }
+
+    @Benchmark
+    public RomProfile getRomProfile() {
+        return PhoneRomUtils.getRomProfile();
+    }
+
+    @Benchmark
+    public boolean isMiui() {
+        return PhoneRomUtils.isMiui();
+    }
+
+    /**
+     * 小米系统优化的开关是可变的，每次都会重新读取
+     */
+    @Benchmark
+    public boolean isXiaomiSystemOptimization() {
+        return PhoneRomUtils.isXiaomiSystemOptimization();
+    }
+
+    @Benchmark
+    public Object createRomProfile() throws ReflectiveOperationException {
+        return mCreateRomProfileMethod.invoke(null);
+    }
+}
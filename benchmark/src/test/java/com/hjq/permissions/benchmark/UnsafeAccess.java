@@ -0,0 +1,46 @@
+package com.hjq.permissions.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 通过 sun.misc.Unsafe 准备基准测试的环境
+ *
+ *             在电脑的 JVM 上面，android.jar 中没有公开构造函数的类创建不了，静态常量也全部是默认值（例如 Build.BRAND 为 null），
+ *             这里只用于基准测试准备数据，不会在被测量的代码中调用
+ */
+final class UnsafeAccess {
+
+    private UnsafeAccess() {}
+
+    /**
+     * 跳过构造函数创建对象
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T allocateInstance(Class<T> clazz) throws ReflectiveOperationException {
+        Object unsafe = getUnsafe();
+        return (T) unsafe.getClass().getMethod("allocateInstance", Class.class).invoke(unsafe, clazz);
+    }
+
+    /**
+     * 修改静态常量的值
+     */
+    static void putStaticObject(Class<?> clazz, String fieldName, Object value) throws ReflectiveOperationException {
+        Object unsafe = getUnsafe();
+        Class<?> unsafeClass = unsafe.getClass();
+        Field field = clazz.getDeclaredField(fieldName);
+        Object base = unsafeClass.getMethod("staticFieldBase", Field.class).invoke(unsafe, field);
+        long offset = (long) unsafeClass.getMethod("staticFieldOffset", Field.class).invoke(unsafe, field);
+        Method putObjectMethod = unsafeClass.getMethod("putObject", Object.class, long.class, Object.class);
+        putObjectMethod.invoke(unsafe, base, offset, value);
+    }
+
+    private static Object getUnsafe() throws ReflectiveOperationException {
+        Field unsafeField = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+        unsafeField.setAccessible(true);
+        return unsafeField.get(null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.hjq.permissions;
+
+import android.support.annotation.NonNull;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/27
+ *    desc   : 权限授予状态查询结果回调接口
+ */
+public interface OnPermissionGrantStatesCallback {
+
+    /**
+     * 查询完成（在主线程回调）
+     *
+     * @param grantStates           权限授予状态查询结果
+     */
+    void onGrantStatesQueried(@NonNull PermissionGrantStates grantStates);
+}
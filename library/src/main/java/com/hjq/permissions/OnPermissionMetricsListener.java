@@ -0,0 +1,40 @@
+package com.hjq.permissions;
+
+import android.support.annotation.NonNull;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.List;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/26
+ *    desc   : 权限请求流程耗时监听器（在主线程回调）
+ */
+public interface OnPermissionMetricsListener {
+
+    /**
+     * 某个阶段开始
+     *
+     * @param phase                 阶段类型
+     * @param permissions           这个阶段处理的权限列表（如果是某一批权限的阶段，则为这一批的权限）
+     */
+    default void onPhaseStart(@NonNull PermissionRequestPhase phase, @NonNull List<IPermission> permissions) {}
+
+    /**
+     * 某个阶段结束
+     *
+     * @param phase                 阶段类型
+     * @param permissions           这个阶段处理的权限列表（如果是某一批权限的阶段，则为这一批的权限）
+     * @param durationNanos         这个阶段的耗时（单位：纳秒）
+     */
+    default void onPhaseEnd(@NonNull PermissionRequestPhase phase, @NonNull List<IPermission> permissions, long durationNanos) {}
+
+    /**
+     * 某个权限的申请结果已经稳定（在 {@link PermissionRequestPhase#RESULT_WAIT} 阶段结束之前回调）
+     *
+     * @param permission            权限对象
+     * @param granted               是否授予
+     * @param settleMillis          从收到系统回调到判断出授予状态的耗时（单位：毫秒），如果没有授予，则为整个等待阶段的耗时
+     */
+    default void onPermissionResultSettled(@NonNull IPermission permission, boolean granted, long settleMillis) {}
+}
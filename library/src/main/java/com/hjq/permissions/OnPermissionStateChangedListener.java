@@ -0,0 +1,21 @@
+package com.hjq.permissions;
+
+import android.support.annotation.NonNull;
+import com.hjq.permissions.permission.base.IPermission;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/28
+ *    desc   : 权限授予状态变化监听器
+ */
+public interface OnPermissionStateChangedListener {
+
+    /**
+     * 权限的授予状态发生了变化（在主线程回调，只有状态真正发生变化的时候才会回调）
+     *
+     * @param permission            授予状态发生变化的权限
+     * @param granted               变化后的授予状态
+     */
+    void onPermissionStateChanged(@NonNull IPermission permission, boolean granted);
+}
@@ -0,0 +1,17 @@
+package com.hjq.permissions;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/22
+ *    desc   : 权限框架预热结果回调接口
+ */
+public interface OnPermissionWarmUpCallback {
+
+    /**
+     * 预热完成（在主线程回调）
+     *
+     * @param costMillis            预热所花费的时间（单位：毫秒）
+     */
+    void onWarmUpFinished(long costMillis);
+}
@@ -0,0 +1,17 @@
+package com.hjq.permissions;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/31
+ *    desc   : 权限请求完成后的收尾策略（决定什么时候回调权限请求结果以及解锁 Activity 屏幕方向）
+ */
+public enum PermissionCompletionStrategy {
+
+    /** 在下一帧开始的时候执行（通过 Choreographer 实现） */
+    NEXT_FRAME,
+    /** 在主线程空闲的时候执行（通过 MessageQueue.IdleHandler 实现，如果主线程一直不空闲，最多等待 100 毫秒） */
+    IDLE,
+    /** 固定延迟 100 毫秒之后执行（默认的策略，和旧版本框架的做法保持一致） */
+    DELAYED
+}
@@ -0,0 +1,91 @@
+package com.hjq.permissions;
+
+import android.support.annotation.NonNull;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/27
+ *    desc   : 权限授予状态查询结果（创建之后不可变）
+ */
+public final class PermissionGrantStates {
+
+    /** 查询的权限列表 */
+    @NonNull
+    private final List<IPermission> mPermissions;
+
+    /** 权限授予状态（下标和查询的权限列表一一对应） */
+    @NonNull
+    private final boolean[] mGrantStates;
+
+    /** 已授予的权限列表 */
+    @NonNull
+    private final List<IPermission> mGrantedPermissions;
+
+    /** 未授予的权限列表 */
+    @NonNull
+    private final List<IPermission> mDeniedPermissions;
+
+    PermissionGrantStates(@NonNull List<IPermission> permissions, @NonNull boolean[] grantStates) {
+        mPermissions = Collections.unmodifiableList(new ArrayList<>(permissions));
+        mGrantStates = grantStates.clone();
+        List<IPermission> grantedPermissions = new ArrayList<>(permissions.size());
+        List<IPermission> deniedPermissions = new ArrayList<>(permissions.size());
+        for (int i = 0; i < mPermissions.size(); i++) {
+            if (mGrantStates[i]) {
+                grantedPermissions.add(mPermissions.get(i));
+            } else {
+                deniedPermissions.add(mPermissions.get(i));
+            }
+        }
+        mGrantedPermissions = Collections.unmodifiableList(grantedPermissions);
+        mDeniedPermissions = Collections.unmodifiableList(deniedPermissions);
+    }
+
+    /**
+     * 获取查询的权限列表
+     */
+    @NonNull
+    public List<IPermission> getPermissions() {
+        return mPermissions;
+    }
+
+    /**
+     * 获取已授予的权限列表
+     */
+    @NonNull
+    public List<IPermission> getGrantedPermissions() {
+        return mGrantedPermissions;
+    }
+
+    /**
+     * 获取未授予的权限列表
+     */
+    @NonNull
+    public List<IPermission> getDeniedPermissions() {
+        return mDeniedPermissions;
+    }
+
+    /**
+     * 判断某个权限是否授予（如果这个权限不在查询的权限列表中，则返回 false）
+     */
+    public boolean isGrantedPermission(@NonNull IPermission permission) {
+        for (int i = 0; i < mPermissions.size(); i++) {
+            if (XXPermissions.equalsPermission(mPermissions.get(i), permission)) {
+                return mGrantStates[i];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断查询的权限是否全部授予了
+     */
+    public boolean isAllGranted() {
+        return !mPermissions.isEmpty() && mDeniedPermissions.isEmpty();
+    }
+}
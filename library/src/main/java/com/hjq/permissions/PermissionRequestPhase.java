@@ -0,0 +1,31 @@
+package com.hjq.permissions;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/26
+ *    desc   : 权限请求流程的阶段
+ */
+public enum PermissionRequestPhase {
+
+    /** 检查权限列表和清单文件是否合规（只有检测模式下才会有） */
+    COMPLIANCE_CHECK,
+    /** 根据新权限补充旧权限 */
+    ADD_OLD_PERMISSIONS,
+    /** 整个权限请求流程（从开始处理到回调权限请求结果） */
+    REQUEST,
+    /** 筛选出未授权的权限并进行分批 */
+    GET_UNAUTHORIZED_PERMISSIONS,
+    /** 某一批权限的请求（从询问是否发起请求到这批权限请求完成） */
+    BATCH,
+    /** 添加 Fragment（从提交 Fragment 到真正发起权限请求） */
+    FRAGMENT_COMMIT,
+    /** 系统授权（从发起权限请求到收到系统的结果回调，包含用户在授权框或者设置页的操作时间） */
+    SYSTEM_REQUEST,
+    /** 收到系统回调后等待权限状态生效的时间 */
+    RESULT_WAIT,
+    /** 两批权限请求之间的间隔时间 */
+    BATCH_INTERVAL,
+    /** 所有权限请求完成之后，延迟处理权限请求结果的时间 */
+    RESULT_DELAY
+}
@@ -0,0 +1,466 @@
+package com.hjq.permissions;
+
+import android.app.Activity;
+import android.app.AlarmManager;
+import android.app.AppOpsManager;
+import android.app.Application;
+import android.app.NotificationManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.database.ContentObserver;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.Window;
+import com.hjq.permissions.permission.PermissionNames;
+import com.hjq.permissions.permission.PermissionType;
+import com.hjq.permissions.permission.base.IPermission;
+import com.hjq.permissions.tools.PermissionTaskHandler;
+import com.hjq.permissions.tools.PermissionUtils;
+import com.hjq.permissions.tools.PermissionVersion;
+import com.hjq.permissions.tools.SecureSettingsComponentIndex;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/28
+ *    desc   : 权限授予状态观察者
+ *
+ *             相比在每次 onResume 的时候都去判断一遍权限是否授予，这个类会监听系统的各种变化事件，
+ *             只有在事件发生之后才会重新判断相关的权限，并且只有在授予状态真正发生变化的时候才会通知外层：
+ *
+ *             1. 能通过 AppOpsManager 判断的特殊权限，监听 AppOpsManager 中对应 Op 的变化（Android 6.0 及以上）
+ *             2. 通知栏监听权限和无障碍服务权限，监听 Settings.Secure 中对应设置项的变化
+ *             3. 所有的权限都会在当前应用的组件状态变化、通知策略访问权限变化、闹钟权限变化的时候重新判断一次
+ *             4. 没有办法监听到变化的权限，会在应用从后台回到前台的时候合并成一次重新判断
+ *
+ *             需要注意：{@link #start()} 和 {@link #stop()} 必须成对调用，并且只能在主线程中调用
+ */
+public final class PermissionStateObserver {
+
+    @NonNull
+    private final Context mApplicationContext;
+
+    /** 观察的权限列表 */
+    @NonNull
+    private final List<IPermission> mPermissions;
+
+    @NonNull
+    private final OnPermissionStateChangedListener mListener;
+
+    /** 主线程 Handler（给 ContentObserver 用） */
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /** 重新判断任务的令牌 */
+    @NonNull
+    private final Object mRecheckTaskToken = new Object();
+
+    /** 权限授予状态（以权限对象作为 key，因为有些权限对象会携带参数） */
+    @NonNull
+    private final Map<IPermission, Boolean> mGrantStateMap = new IdentityHashMap<>();
+
+    /** 等待重新判断的权限集合 */
+    @NonNull
+    private final Set<IPermission> mPendingPermissions = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Op 名称和对应权限的映射表 */
+    @NonNull
+    private final Map<String, List<IPermission>> mOpPermissionMap = new HashMap<>();
+
+    /** Settings.Secure 设置项和对应权限的映射表 */
+    @NonNull
+    private final Map<String, List<IPermission>> mSecureSettingPermissionMap = new HashMap<>();
+
+    /** 只能在应用回到前台的时候重新判断的权限列表 */
+    @NonNull
+    private final List<IPermission> mForegroundRecheckPermissions = new ArrayList<>();
+
+    /** Op 变化监听器 */
+    @Nullable
+    private AppOpsManager.OnOpChangedListener mOpChangedListener;
+
+    /** 设置项变化监听器 */
+    @NonNull
+    private final List<ContentObserver> mContentObservers = new ArrayList<>();
+
+    /** 系统广播接收器 */
+    @Nullable
+    private BroadcastReceiver mBroadcastReceiver;
+
+    /** Activity 生命周期监听器 */
+    @Nullable
+    private Application.ActivityLifecycleCallbacks mActivityLifecycleCallbacks;
+
+    /** 当前是否已经开始观察 */
+    private boolean mStarted;
+
+    public PermissionStateObserver(@NonNull Context context, @NonNull List<IPermission> permissions,
+                                   @NonNull OnPermissionStateChangedListener listener) {
+        Context applicationContext = context.getApplicationContext();
+        mApplicationContext = applicationContext != null ? applicationContext : context;
+        mPermissions = new ArrayList<>(permissions);
+        mListener = listener;
+    }
+
+    /**
+     * 开始观察（会先判断一次所有权限的授予状态作为基准，基准状态不会回调给外层）
+     *
+     * 如果调用的时候已经有 Activity 处于可见状态，请使用 {@link #start(Activity)}
+     */
+    public void start() {
+        start(null);
+    }
+
+    /**
+     * 开始观察（会先判断一次所有权限的授予状态作为基准，基准状态不会回调给外层）
+     *
+     * @param activity          调用此方法的 Activity，会根据它当前是否可见来初始化可见 Activity 的数量，
+     *                          否则在它可见的状态下开始观察，后面每次切换 Activity 都会被误判成应用从后台回到了前台
+     */
+    public void start(@Nullable Activity activity) {
+        if (mStarted) {
+            return;
+        }
+        mStarted = true;
+
+        for (IPermission permission : mPermissions) {
+            mGrantStateMap.put(permission, permission.isGrantedPermission(mApplicationContext));
+        }
+
+        classifyPermissions();
+        registerOpChangedListener();
+        registerContentObservers();
+        registerBroadcastReceiver();
+        registerActivityLifecycleCallbacks(isActivityVisible(activity) ? 1 : 0);
+    }
+
+    /**
+     * 停止观察
+     */
+    public void stop() {
+        if (!mStarted) {
+            return;
+        }
+        mStarted = false;
+
+        PermissionTaskHandler.cancelTask(mRecheckTaskToken);
+        mPendingPermissions.clear();
+
+        if (mOpChangedListener != null && PermissionVersion.isAndroid6()) {
+            AppOpsManager appOpsManager = mApplicationContext.getSystemService(AppOpsManager.class);
+            if (appOpsManager != null) {
+                appOpsManager.stopWatchingMode(mOpChangedListener);
+            }
+        }
+        mOpChangedListener = null;
+
+        for (ContentObserver contentObserver : mContentObservers) {
+            mApplicationContext.getContentResolver().unregisterContentObserver(contentObserver);
+        }
+        mContentObservers.clear();
+
+        if (mBroadcastReceiver != null) {
+            try {
+                mApplicationContext.unregisterReceiver(mBroadcastReceiver);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        mBroadcastReceiver = null;
+
+        if (mActivityLifecycleCallbacks != null && mApplicationContext instanceof Application) {
+            ((Application) mApplicationContext).unregisterActivityLifecycleCallbacks(mActivityLifecycleCallbacks);
+        }
+        mActivityLifecycleCallbacks = null;
+
+        mOpPermissionMap.clear();
+        mSecureSettingPermissionMap.clear();
+        mForegroundRecheckPermissions.clear();
+    }
+
+    /**
+     * 获取某个权限最近一次判断的授予状态（如果这个权限不在观察的范围内，则返回 false）
+     */
+    public boolean isGrantedPermission(@NonNull IPermission permission) {
+        Boolean granted = mGrantStateMap.get(permission);
+        return granted != null && granted;
+    }
+
+    /**
+     * 根据权限能被监听的方式进行分类
+     */
+    private void classifyPermissions() {
+        for (IPermission permission : mPermissions) {
+            String permissionName = permission.getPermissionName();
+
+            String secureSettingName = getSecureSettingName(permissionName);
+            if (secureSettingName != null) {
+                addToMap(mSecureSettingPermissionMap, secureSettingName, permission);
+                continue;
+            }
+
+            // 危险权限虽然也能查询到对应的 Op，但是在 Android 6.0 ~ 9.0 上面，在设置中授予或者撤销危险权限并不会改变 Op 的模式，
+            // 也就是说 Op 变化监听器是感知不到危险权限变化的，所以只有特殊权限才通过 Op 来监听，危险权限还是在回到前台的时候重新判断
+            String opName = permission.getPermissionType() == PermissionType.SPECIAL ? getOpName(permissionName) : null;
+            if (opName != null) {
+                addToMap(mOpPermissionMap, opName, permission);
+                continue;
+            }
+
+            mForegroundRecheckPermissions.add(permission);
+        }
+    }
+
+    /**
+     * 获取权限对应的 Settings.Secure 设置项名称
+     */
+    @Nullable
+    private static String getSecureSettingName(@NonNull String permissionName) {
+        if (PermissionNames.BIND_NOTIFICATION_LISTENER_SERVICE.equals(permissionName)) {
+            return SecureSettingsComponentIndex.SETTING_ENABLED_NOTIFICATION_LISTENERS;
+        }
+        if (PermissionNames.BIND_ACCESSIBILITY_SERVICE.equals(permissionName)) {
+            return SecureSettingsComponentIndex.SETTING_ENABLED_ACCESSIBILITY_SERVICES;
+        }
+        return null;
+    }
+
+    /**
+     * 获取权限对应的 Op 名称（只有 Android 6.0 及以上才能通过系统 API 查询）
+     */
+    @Nullable
+    private static String getOpName(@NonNull String permissionName) {
+        if (!PermissionVersion.isAndroid6()) {
+            return null;
+        }
+        if (PermissionNames.PICTURE_IN_PICTURE.equals(permissionName)) {
+            // 画中画权限并不是一个真正的权限，所以系统查询不到它对应的 Op，这里需要单独处理
+            return PermissionVersion.isAndroid8() ? AppOpsManager.OPSTR_PICTURE_IN_PICTURE : null;
+        }
+        try {
+            return AppOpsManager.permissionToOp(permissionName);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void addToMap(@NonNull Map<String, List<IPermission>> map, @NonNull String key, @NonNull IPermission permission) {
+        List<IPermission> permissions = map.get(key);
+        if (permissions == null) {
+            permissions = new ArrayList<>();
+            map.put(key, permissions);
+        }
+        permissions.add(permission);
+    }
+
+    /**
+     * 注册 Op 变化监听器
+     */
+    private void registerOpChangedListener() {
+        if (mOpPermissionMap.isEmpty() || !PermissionVersion.isAndroid6()) {
+            return;
+        }
+        AppOpsManager appOpsManager = mApplicationContext.getSystemService(AppOpsManager.class);
+        if (appOpsManager == null) {
+            // 监听不了的话，就只能退化成回到前台的时候再判断
+            for (List<IPermission> permissions : mOpPermissionMap.values()) {
+                mForegroundRecheckPermissions.addAll(permissions);
+            }
+            mOpPermissionMap.clear();
+            return;
+        }
+        final String packageName = mApplicationContext.getPackageName();
+        // 这个回调是在 Binder 线程中执行的，需要切换到主线程再处理
+        mOpChangedListener = (op, changedPackageName) -> {
+            if (changedPackageName != null && !packageName.equals(changedPackageName)) {
+                return;
+            }
+            PermissionTaskHandler.sendTask(() -> {
+                List<IPermission> permissions = mOpPermissionMap.get(op);
+                if (permissions != null) {
+                    postRecheck(permissions);
+                }
+            }, 0);
+        };
+        for (String opName : new ArrayList<>(mOpPermissionMap.keySet())) {
+            try {
+                appOpsManager.startWatchingMode(opName, packageName, mOpChangedListener);
+            } catch (Exception e) {
+                // 有些 Op 可能不支持监听，这种情况下就只能退化成回到前台的时候再判断
+                e.printStackTrace();
+                List<IPermission> permissions = mOpPermissionMap.remove(opName);
+                if (permissions != null) {
+                    mForegroundRecheckPermissions.addAll(permissions);
+                }
+            }
+        }
+    }
+
+    /**
+     * 注册设置项变化监听器
+     */
+    private void registerContentObservers() {
+        for (Map.Entry<String, List<IPermission>> entry : mSecureSettingPermissionMap.entrySet()) {
+            final List<IPermission> permissions = entry.getValue();
+            ContentObserver contentObserver = new ContentObserver(mHandler) {
+
+                @Override
+                public void onChange(boolean selfChange) {
+                    postRecheck(permissions);
+                }
+            };
+            mApplicationContext.getContentResolver().registerContentObserver(
+                Settings.Secure.getUriFor(entry.getKey()), false, contentObserver);
+            mContentObservers.add(contentObserver);
+        }
+    }
+
+    /**
+     * 注册系统广播接收器
+     */
+    private void registerBroadcastReceiver() {
+        IntentFilter intentFilter = new IntentFilter();
+        if (PermissionVersion.isAndroid9()) {
+            intentFilter.addAction(NotificationManager.ACTION_NOTIFICATION_POLICY_ACCESS_GRANTED_CHANGED);
+            intentFilter.addAction(NotificationManager.ACTION_APP_BLOCK_STATE_CHANGED);
+        }
+        if (PermissionVersion.isAndroid12()) {
+            intentFilter.addAction(AlarmManager.ACTION_SCHEDULE_EXACT_ALARM_PERMISSION_STATE_CHANGED);
+        }
+        // 应用变化的广播需要单独一个 IntentFilter，因为它需要匹配 package 协议的数据
+        IntentFilter packageIntentFilter = new IntentFilter(Intent.ACTION_PACKAGE_CHANGED);
+        packageIntentFilter.addDataScheme("package");
+        final String packageName = mApplicationContext.getPackageName();
+        mBroadcastReceiver = new BroadcastReceiver() {
+
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                if (Intent.ACTION_PACKAGE_CHANGED.equals(intent.getAction()) &&
+                    (intent.getData() == null || !packageName.equals(intent.getData().getSchemeSpecificPart()))) {
+                    // 不是当前应用的变化，不需要处理
+                    return;
+                }
+                // 这些广播和多个权限都有关联，所以统一将全部权限重新判断一次
+                postRecheck(mPermissions);
+            }
+        };
+        try {
+            if (intentFilter.countActions() > 0) {
+                mApplicationContext.registerReceiver(mBroadcastReceiver, intentFilter);
+            }
+            mApplicationContext.registerReceiver(mBroadcastReceiver, packageIntentFilter);
+        } catch (Exception e) {
+            e.printStackTrace();
+            mBroadcastReceiver = null;
+        }
+    }
+
+    /**
+     * 判断 Activity 当前是否处于可见状态（onStart 之后，onStop 之前）
+     *
+     * 系统没有提供获取 Activity 生命周期状态的方法，这里用的是 DecorView 的可见性来判断：
+     * Activity 第一次 onResume 之后 DecorView 才会被添加到窗口上面，并且系统在 onStop 之后会把 DecorView 设置成不可见
+     */
+    private static boolean isActivityVisible(@Nullable Activity activity) {
+        if (PermissionUtils.isActivityUnavailable(activity)) {
+            return false;
+        }
+        Window window = activity.getWindow();
+        return window != null && window.getDecorView().isShown();
+    }
+
+    /**
+     * 注册 Activity 生命周期监听器（用于感知应用从后台回到前台）
+     *
+     * @param startedActivityCount          注册时处于可见状态的 Activity 数量
+     */
+    private void registerActivityLifecycleCallbacks(int startedActivityCount) {
+        if (mForegroundRecheckPermissions.isEmpty() || !(mApplicationContext instanceof Application)) {
+            return;
+        }
+        mActivityLifecycleCallbacks = new Application.ActivityLifecycleCallbacks() {
+
+            /** 处于可见状态的 Activity 数量 */
+            private int mStartedActivityCount = startedActivityCount;
+
+            @Override
+            public void onActivityStarted(@NonNull Activity activity) {
+                mStartedActivityCount++;
+                if (mStartedActivityCount == 1) {
+                    // 应用从后台回到前台了
+                    postRecheck(mForegroundRecheckPermissions);
+                }
+            }
+
+            @Override
+            public void onActivityStopped(@NonNull Activity activity) {
+                if (mStartedActivityCount > 0) {
+                    mStartedActivityCount--;
+                }
+            }
+
+            @Override
+            public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {}
+
+            @Override
+            public void onActivityResumed(@NonNull Activity activity) {}
+
+            @Override
+            public void onActivityPaused(@NonNull Activity activity) {}
+
+            @Override
+            public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {}
+
+            @Override
+            public void onActivityDestroyed(@NonNull Activity activity) {}
+        };
+        ((Application) mApplicationContext).registerActivityLifecycleCallbacks(mActivityLifecycleCallbacks);
+    }
+
+    /**
+     * 将权限加入到等待重新判断的集合中（短时间内的多次事件会合并成一次判断）
+     */
+    private void postRecheck(@NonNull List<IPermission> permissions) {
+        if (!mStarted) {
+            return;
+        }
+        boolean alreadyPosted = !mPendingPermissions.isEmpty();
+        mPendingPermissions.addAll(permissions);
+        if (alreadyPosted || mPendingPermissions.isEmpty()) {
+            return;
+        }
+        PermissionTaskHandler.sendTask(this::recheckPendingPermissions, mRecheckTaskToken, 0);
+    }
+
+    /**
+     * 重新判断等待中的权限，并将状态发生变化的权限通知给外层
+     */
+    private void recheckPendingPermissions() {
+        if (!mStarted) {
+            return;
+        }
+        List<IPermission> permissions = new ArrayList<>(mPendingPermissions);
+        mPendingPermissions.clear();
+        for (IPermission permission : permissions) {
+            boolean granted = permission.isGrantedPermission(mApplicationContext);
+            Boolean previousGranted = mGrantStateMap.put(permission, granted);
+            if (previousGranted != null && previousGranted == granted) {
+                continue;
+            }
+            mListener.onPermissionStateChanged(permission, granted);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.hjq.permissions;
 import android.app.Activity;
 import android.app.Fragment;
 import android.content.Context;
+import android.os.SystemClock;
 import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
@@ -10,17 +11,27 @@ import android.support.v4.app.FragmentActivity;
 import com.hjq.permissions.fragment.factory.PermissionFragmentFactory;
 import com.hjq.permissions.fragment.factory.PermissionFragmentFactoryByApp;
 import com.hjq.permissions.fragment.factory.PermissionFragmentFactoryBySupport;
+import com.hjq.permissions.manager.AlreadyRequestPermissionsManager;
+import com.hjq.permissions.manager.RequestIntervalTimeManager;
 import com.hjq.permissions.manifest.AndroidManifestParser;
+import com.hjq.permissions.permission.PermissionLists;
 import com.hjq.permissions.permission.PermissionType;
 import com.hjq.permissions.permission.base.IPermission;
 import com.hjq.permissions.start.StartActivityAgent;
+import com.hjq.permissions.tools.ActivityIntentCache;
 import com.hjq.permissions.tools.PermissionApi;
 import com.hjq.permissions.tools.PermissionChecker;
+import com.hjq.permissions.tools.PermissionMetrics;
+import com.hjq.permissions.tools.PermissionMetrics.PhaseSpan;
 import com.hjq.permissions.tools.PermissionSettingPage;
+import com.hjq.permissions.tools.PermissionTaskHandler;
 import com.hjq.permissions.tools.PermissionUtils;
 import com.hjq.permissions.tools.PermissionVersion;
+import com.hjq.permissions.tools.PhoneRomUtils;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *    author : Android 轮子哥
@@ -40,8 +51,19 @@ public final class XXPermissions {
     /** 权限请求描述器的类型（全局生效） */
     private static Class<? extends OnPermissionDescription> sPermissionDescriptionClass;
 
-    /** 是否为检查模式（全局生效） */
-    private static Boolean sCheckMode;
+    /** 权限请求流程耗时监听器（全局生效） */
+    @Nullable
+    private static volatile OnPermissionMetricsListener sPermissionMetricsListener;
+
+    /** 权限请求完成后的收尾策略（全局生效） */
+    @NonNull
+    private static volatile PermissionCompletionStrategy sPermissionCompletionStrategy = PermissionCompletionStrategy.DELAYED;
+
+    /** 是否将所有前台危险权限合并成一次请求（全局生效） */
+    private static volatile boolean sMergeDangerousPermissionGroups;
+
+    /** 是否为检查模式（全局生效，可能会在预热的子线程中赋值，所以需要用 volatile 修饰） */
+    private static volatile Boolean sCheckMode;
 
     /**
      * 设置请求的对象
@@ -67,6 +89,108 @@ public final class XXPermissions {
         sCheckMode = checkMode;
     }
 
+    /**
+     * 在子线程中预热权限框架（建议在 Application.onCreate 中调用）
+     *
+     * 框架在第一次申请权限的时候，需要判断是否为 debug 模式、解析清单文件、获取厂商系统信息、创建权限对象，
+     * 这些操作默认都是在主线程中懒加载的，而通过这个方法可以提前在子线程中完成，这样第一次申请权限的时候就能直接用上结果
+     *
+     * @param executor              执行预热任务的线程池
+     */
+    public static void warmUp(@NonNull Context context, @NonNull Executor executor) {
+        warmUp(context, executor, null);
+    }
+
+    /**
+     * 同上
+     *
+     * @param callback              预热完成的回调（在主线程回调，可用于统计预热耗时）
+     */
+    public static void warmUp(@NonNull Context context, @NonNull Executor executor, @Nullable OnPermissionWarmUpCallback callback) {
+        final Context applicationContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        executor.execute(() -> {
+            long startTime = SystemClock.elapsedRealtime();
+            try {
+                Boolean checkMode = sCheckMode;
+                if (checkMode == null) {
+                    checkMode = PermissionUtils.isDebugMode(applicationContext);
+                    sCheckMode = checkMode;
+                }
+                // 清单文件只有在检测模式下才会用到，所以非检测模式下不需要去解析
+                if (checkMode) {
+                    AndroidManifestParser.getAndroidManifestInfo(applicationContext);
+                }
+                PhoneRomUtils.getRomProfile();
+                List<IPermission> permissions = PermissionLists.preloadPermissions();
+                // 预解析这些权限的设置页意图，这样第一次跳转设置页的时候就不需要再跨进程查询了
+                ActivityIntentCache.preloadPermissionIntents(applicationContext, permissions);
+                AlreadyRequestPermissionsManager.loadAlreadyRequestPermissions(applicationContext);
+                RequestIntervalTimeManager.loadRequestIntervalTime(applicationContext);
+            } catch (Exception e) {
+                // 预热失败不能影响到正常的权限申请，后面用到的时候还会再懒加载一次
+                e.printStackTrace();
+            }
+            long costMillis = SystemClock.elapsedRealtime() - startTime;
+            if (callback == null) {
+                return;
+            }
+            PermissionTaskHandler.sendTask(() -> callback.onWarmUpFinished(costMillis), 0);
+        });
+    }
+
+    /**
+     * 设置权限请求流程耗时监听器（全局设置，传入 null 则取消监听）
+     *
+     * 没有设置监听器的情况下，框架不会进行任何耗时统计，所以不会带来额外的性能开销
+     */
+    public static void setPermissionMetricsListener(@Nullable OnPermissionMetricsListener listener) {
+        sPermissionMetricsListener = listener;
+    }
+
+    /**
+     * 获取权限请求流程耗时监听器（全局）
+     */
+    @Nullable
+    public static OnPermissionMetricsListener getPermissionMetricsListener() {
+        return sPermissionMetricsListener;
+    }
+
+    /**
+     * 设置权限请求完成后的收尾策略（全局设置）
+     *
+     * 默认是 {@link PermissionCompletionStrategy#DELAYED}（固定延迟 100 毫秒），如果想更快地收到权限请求结果，
+     * 可以设置成 {@link PermissionCompletionStrategy#NEXT_FRAME} 或者 {@link PermissionCompletionStrategy#IDLE}
+     */
+    public static void setPermissionCompletionStrategy(@NonNull PermissionCompletionStrategy strategy) {
+        sPermissionCompletionStrategy = strategy;
+    }
+
+    /**
+     * 获取权限请求完成后的收尾策略（全局）
+     */
+    @NonNull
+    public static PermissionCompletionStrategy getPermissionCompletionStrategy() {
+        return sPermissionCompletionStrategy;
+    }
+
+    /**
+     * 设置是否将所有前台危险权限合并成一次请求（全局设置，默认不合并）
+     *
+     * 默认情况下，不同权限组的危险权限会分成多次请求，每次都需要添加一次 Fragment 并等待一次系统回调，
+     * 开启之后，所有前台危险权限会合并成一次请求，后台权限和特殊权限仍然按照原来的顺序逐个请求，
+     * 需要注意的是，开启之后权限描述器（{@link OnPermissionDescription}）收到的也是合并后的权限列表
+     */
+    public static void setMergeDangerousPermissionGroups(boolean merge) {
+        sMergeDangerousPermissionGroups = merge;
+    }
+
+    /**
+     * 是否将所有前台危险权限合并成一次请求（全局）
+     */
+    public static boolean isMergeDangerousPermissionGroups() {
+        return sMergeDangerousPermissionGroups;
+    }
+
     /**
      * 设置权限申请拦截器（全局设置）
      */
@@ -241,15 +365,21 @@ public final class XXPermissions {
         Activity activity = PermissionUtils.findActivity(context);
 
         if (isCheckMode(context)) {
-            // 检查传入的 Activity 或者 Fragment 状态是否正常
-            PermissionChecker.checkActivityStatus(activity);
-            if (appFragment != null) {
-                PermissionChecker.checkAppFragmentStatus(appFragment);
-            } else if (supportFragment != null) {
-                PermissionChecker.checkSupportFragmentStatus(supportFragment);
+            PhaseSpan complianceCheckSpan = PermissionMetrics.beginPhase(PermissionRequestPhase.COMPLIANCE_CHECK, permissions);
+            try {
+                // 检查传入的 Activity 或者 Fragment 状态是否正常
+                PermissionChecker.checkActivityStatus(activity);
+                if (appFragment != null) {
+                    PermissionChecker.checkAppFragmentStatus(appFragment);
+                } else if (supportFragment != null) {
+                    PermissionChecker.checkSupportFragmentStatus(supportFragment);
+                }
+                // 检查传入的权限是否正常
+                PermissionChecker.checkPermissionList(activity, permissions, AndroidManifestParser.getAndroidManifestInfo(context));
+            } finally {
+                // 检查不通过的时候会抛出异常，这种情况下也需要结束这个阶段的统计
+                PermissionMetrics.endPhase(complianceCheckSpan);
             }
-            // 检查传入的权限是否正常
-            PermissionChecker.checkPermissionList(activity, permissions, AndroidManifestParser.getAndroidManifestInfo(context));
         }
 
         // 检查 Activity 是不是不可用
@@ -258,7 +388,9 @@ public final class XXPermissions {
         }
 
         // 优化所申请的权限列表
+        PhaseSpan addOldPermissionsSpan = PermissionMetrics.beginPhase(PermissionRequestPhase.ADD_OLD_PERMISSIONS, permissions);
         PermissionApi.addOldPermissionsByNewPermissions(activity, permissions);
+        PermissionMetrics.endPhase(addOldPermissionsSpan);
 
         // 判断要申请的权限是否都授予了
         if (PermissionApi.isGrantedPermissions(context, permissions)) {
@@ -330,10 +462,12 @@ public final class XXPermissions {
      */
     private boolean isCheckMode(@NonNull Context context) {
         if (mCheckMode == null) {
-            if (sCheckMode == null) {
-                sCheckMode = PermissionUtils.isDebugMode(context);
+            Boolean checkMode = sCheckMode;
+            if (checkMode == null) {
+                checkMode = PermissionUtils.isDebugMode(context);
+                sCheckMode = checkMode;
             }
-            mCheckMode = sCheckMode;
+            mCheckMode = checkMode;
         }
         return mCheckMode;
     }
@@ -353,6 +487,45 @@ public final class XXPermissions {
         return PermissionApi.isGrantedPermissions(context, permissions);
     }
 
+    /**
+     * 在子线程中查询权限的授予状态（每个权限的判断都会作为一个单独的任务提交到线程池中，结果会在主线程回调）
+     *
+     * 判断权限是否授予的背后大多是跨进程调用或者反射，如果一次判断的权限比较多，在主线程中判断会比较耗时，
+     * 这种情况下可以通过这个方法在子线程中判断，传入的线程池如果有多个线程，那么这些权限会被并行判断
+     *
+     * @param executor              执行查询任务的线程池
+     * @param callback              查询结果回调
+     */
+    public static void queryGrantStatesAsync(@NonNull Context context, @NonNull List<IPermission> permissions,
+                                             @NonNull Executor executor, @NonNull OnPermissionGrantStatesCallback callback) {
+        final Context applicationContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        // 拷贝一份，避免外层在查询的过程中修改了权限列表
+        final List<IPermission> queryPermissions = new ArrayList<>(permissions);
+        final boolean[] grantStates = new boolean[queryPermissions.size()];
+        if (queryPermissions.isEmpty()) {
+            PermissionTaskHandler.sendTask(() -> callback.onGrantStatesQueried(new PermissionGrantStates(queryPermissions, grantStates)), 0);
+            return;
+        }
+        final AtomicInteger remainingCount = new AtomicInteger(queryPermissions.size());
+        for (int i = 0; i < queryPermissions.size(); i++) {
+            final int index = i;
+            executor.execute(() -> {
+                try {
+                    grantStates[index] = queryPermissions.get(index).isGrantedPermission(applicationContext);
+                } catch (Exception e) {
+                    // 判断出现异常的权限统一当作没有授予处理
+                    e.printStackTrace();
+                }
+                // 最后一个完成的任务负责回调结果，AtomicInteger 的原子操作可以保证其他任务写入的结果对它是可见的
+                if (remainingCount.decrementAndGet() != 0) {
+                    return;
+                }
+                PermissionGrantStates result = new PermissionGrantStates(queryPermissions, grantStates);
+                PermissionTaskHandler.sendTask(() -> callback.onGrantStatesQueried(result), 0);
+            });
+        }
+    }
+
     /**
      * 从权限列表中获取已授予的权限
      */
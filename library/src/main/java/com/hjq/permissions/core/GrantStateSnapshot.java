@@ -0,0 +1,71 @@
+package com.hjq.permissions.core;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/24
+ *    desc   : 权限授予状态快照
+ *
+ *             判断权限是否授予的背后大多是跨进程调用（checkSelfPermission、AppOpsManager、Settings 等），
+ *             而在同一个处理阶段中，同一个权限的授予状态会被反复判断很多次，所以这里将结果记录下来，
+ *             在同一个阶段内只会真正判断一次，等权限请求有了结果之后，需要调用 {@link #invalidate()} 让快照失效
+ */
+public final class GrantStateSnapshot {
+
+    /**
+     * 权限授予状态集合
+     *
+     * 这里解释一下为什么用 IdentityHashMap 而不是以权限名称作为 key：有些权限对象会携带参数，
+     * 例如通知栏权限携带的通知渠道 id，这种权限的名称虽然相同，但是授予状态却可能不同，所以只能以对象作为 key
+     */
+    @NonNull
+    private final Map<IPermission, Boolean> mGrantStateMap = new IdentityHashMap<>();
+
+    @NonNull
+    private final Context mContext;
+
+    public GrantStateSnapshot(@NonNull Context context) {
+        mContext = context;
+    }
+
+    /**
+     * 判断某个权限是否授予
+     */
+    public boolean isGrantedPermission(@NonNull IPermission permission) {
+        Boolean granted = mGrantStateMap.get(permission);
+        if (granted == null) {
+            granted = permission.isGrantedPermission(mContext);
+            mGrantStateMap.put(permission, granted);
+        }
+        return granted;
+    }
+
+    /**
+     * 判断权限列表是否全部授予
+     */
+    public boolean isGrantedPermissions(@NonNull List<IPermission> permissions) {
+        if (permissions.isEmpty()) {
+            return false;
+        }
+        for (IPermission permission : permissions) {
+            if (!isGrantedPermission(permission)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 让快照失效（权限的授予状态可能已经发生了变化）
+     */
+    public void invalidate() {
+        mGrantStateMap.clear();
+    }
+}
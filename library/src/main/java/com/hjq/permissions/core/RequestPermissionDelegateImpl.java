@@ -2,9 +2,11 @@ package com.hjq.permissions.core;
 
 import android.app.Activity;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import com.hjq.permissions.PermissionRequestPhase;
 import com.hjq.permissions.fragment.IFragmentCallback;
 import com.hjq.permissions.fragment.IFragmentMethod;
 import com.hjq.permissions.manager.ActivityOrientationManager;
@@ -12,6 +14,8 @@ import com.hjq.permissions.permission.base.IPermission;
 import com.hjq.permissions.start.IStartActivityDelegate;
 import com.hjq.permissions.tools.PermissionVersion;
 import com.hjq.permissions.tools.PermissionApi;
+import com.hjq.permissions.tools.PermissionMetrics;
+import com.hjq.permissions.tools.PermissionMetrics.PhaseSpan;
 import com.hjq.permissions.tools.PermissionTaskHandler;
 import com.hjq.permissions.tools.PermissionUtils;
 import java.util.List;
@@ -30,6 +34,9 @@ public abstract class RequestPermissionDelegateImpl implements IFragmentCallback
     /** 请求码（自动生成）*/
     public static final String REQUEST_CODE = "request_code";
 
+    /** 第一次轮询权限结果的间隔时间（后面每次轮询的间隔时间会翻倍） */
+    private static final long RESULT_POLL_FIRST_INTERVAL_TIME = 16;
+
     /** 任务令牌 */
     @NonNull
     private final Object mTaskToken = new Object();
@@ -51,6 +58,17 @@ public abstract class RequestPermissionDelegateImpl implements IFragmentCallback
     @Nullable
     private OnPermissionFlowCallback mCallBack;
 
+    /** 当前阶段（系统授权阶段或者等待结果生效阶段）的耗时统计片段 */
+    @Nullable
+    private PhaseSpan mPhaseSpan;
+
+    /** 开始等待权限结果生效的时间 */
+    private long mResultWaitStartTime;
+
+    /** 每个权限判断到授予状态时已经等待的时长（小于 0 则为还没有判断到授予） */
+    @Nullable
+    private long[] mResultSettleTimes;
+
     RequestPermissionDelegateImpl(@NonNull IFragmentMethod<?, ?> fragmentMethod) {
         mFragmentMethod = fragmentMethod;
     }
@@ -197,6 +215,7 @@ public abstract class RequestPermissionDelegateImpl implements IFragmentCallback
         if (permissions == null || permissions.isEmpty()) {
             return;
         }
+        mPhaseSpan = PermissionMetrics.beginPhase(PermissionRequestPhase.SYSTEM_REQUEST, permissions);
         startPermissionRequest(activity, permissions, requestCode);
         OnPermissionFlowCallback callback = getCallBack();
         if (callback == null) {
@@ -209,6 +228,8 @@ public abstract class RequestPermissionDelegateImpl implements IFragmentCallback
     public void onFragmentDestroy() {
         // 取消执行任务
         cancelTask();
+        PermissionMetrics.endPhase(mPhaseSpan);
+        mPhaseSpan = null;
         OnPermissionFlowCallback callBack = getCallBack();
         // 如果回调还没有置空，则证明前面没有回调权限回调完成
         if (callBack != null) {
@@ -234,12 +255,81 @@ public abstract class RequestPermissionDelegateImpl implements IFragmentCallback
      * 通知权限回调
      */
     protected void notificationPermissionCallback() {
+        PermissionMetrics.endPhase(mPhaseSpan);
+        mPhaseSpan = null;
         Activity activity = getActivity();
         if (PermissionUtils.isActivityUnavailable(activity)) {
             return;
         }
-        // 延迟处理权限请求的结果
-        sendTask(this::handlerPermissionCallback, PermissionApi.getMaxWaitTimeByPermissions(activity, getPermissionRequestList()));
+        List<IPermission> permissions = getPermissionRequestList();
+        mPhaseSpan = PermissionMetrics.beginPhase(PermissionRequestPhase.RESULT_WAIT, permissions);
+        int maxWaitTime = PermissionApi.getMaxWaitTimeByPermissions(activity, permissions);
+        if (maxWaitTime <= 0 || permissions == null || permissions.isEmpty()) {
+            sendTask(this::finishResultWait, maxWaitTime);
+            return;
+        }
+        // 有些厂商的系统在授权之后需要过一段时间才能判断到授予状态，所以权限会声明一个等待时间，
+        // 但是这个时间是按照最慢的机型来定的，在大部分机型上面，授予状态其实很快就能判断到了，
+        // 所以这里改成轮询的方式（轮询间隔逐次翻倍），一旦判断到所有的权限都已经授予，就马上处理结果，
+        // 而声明的等待时间只作为等待的上限，如果到了这个时间还有权限没有授予，那么就按照没有授予来处理
+        mResultWaitStartTime = SystemClock.elapsedRealtime();
+        long[] resultSettleTimes = new long[permissions.size()];
+        for (int i = 0; i < resultSettleTimes.length; i++) {
+            resultSettleTimes[i] = -1;
+        }
+        mResultSettleTimes = resultSettleTimes;
+        sendTask(() -> pollPermissionResult(permissions, maxWaitTime, RESULT_POLL_FIRST_INTERVAL_TIME), 0);
+    }
+
+    /**
+     * 轮询权限的授予状态
+     *
+     * @param permissions           请求的权限
+     * @param maxWaitTime           最长的等待时间
+     * @param pollIntervalTime      下一次轮询的间隔时间
+     */
+    private void pollPermissionResult(@NonNull List<IPermission> permissions, int maxWaitTime, long pollIntervalTime) {
+        Activity activity = getActivity();
+        long[] resultSettleTimes = mResultSettleTimes;
+        if (PermissionUtils.isActivityUnavailable(activity) || resultSettleTimes == null) {
+            finishResultWait();
+            return;
+        }
+
+        long waitTime = SystemClock.elapsedRealtime() - mResultWaitStartTime;
+        boolean allGranted = true;
+        for (int i = 0; i < resultSettleTimes.length; i++) {
+            if (resultSettleTimes[i] >= 0) {
+                continue;
+            }
+            if (permissions.get(i).isGrantedPermission(activity)) {
+                resultSettleTimes[i] = waitTime;
+            } else {
+                allGranted = false;
+            }
+        }
+
+        if (!allGranted && waitTime < maxWaitTime) {
+            long delayMillis = Math.min(pollIntervalTime, maxWaitTime - waitTime);
+            sendTask(() -> pollPermissionResult(permissions, maxWaitTime, pollIntervalTime * 2), delayMillis);
+            return;
+        }
+
+        for (int i = 0; i < resultSettleTimes.length; i++) {
+            boolean granted = resultSettleTimes[i] >= 0;
+            PermissionMetrics.reportResultSettled(permissions.get(i), granted, granted ? resultSettleTimes[i] : waitTime);
+        }
+        finishResultWait();
+    }
+
+    /**
+     * 结束等待权限结果生效
+     */
+    private void finishResultWait() {
+        PermissionMetrics.endPhase(mPhaseSpan);
+        mPhaseSpan = null;
+        mResultSettleTimes = null;
+        handlerPermissionCallback();
     }
 
     /**
@@ -1,11 +1,15 @@
 package com.hjq.permissions.core;
 
 import android.app.Activity;
+import android.content.pm.PackageManager;
+import android.os.SystemClock;
 import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import com.hjq.permissions.fragment.IFragmentMethod;
 import com.hjq.permissions.manager.AlreadyRequestPermissionsManager;
 import com.hjq.permissions.manager.PermissionRequestCodeManager;
+import com.hjq.permissions.manager.RequestIntervalTimeManager;
 import com.hjq.permissions.permission.base.IPermission;
 import com.hjq.permissions.tools.PermissionVersion;
 import com.hjq.permissions.tools.PermissionUtils;
@@ -19,6 +23,19 @@ import java.util.List;
  */
 public final class RequestPermissionDelegateImplByDangerous extends RequestPermissionDelegateImpl {
 
+    /**
+     * 被系统静默忽略的权限请求，从发起请求到收到结果的最长时间
+     *
+     * 用户在授权框中进行操作，无论如何都要比这个时间长，如果比这个时间还短，那么就证明系统根本没有显示授权框
+     */
+    private static final long SILENT_DROP_MAX_MILLIS = 200;
+
+    /** 发起权限请求的时间 */
+    private long mRequestTime;
+
+    /** 发起权限请求之后 Fragment 是否有不可见过（系统显示授权框的时候会导致 Fragment 不可见） */
+    private boolean mPausedAfterRequest;
+
     public RequestPermissionDelegateImplByDangerous(@NonNull IFragmentMethod<?, ?> fragmentMethod) {
         super(fragmentMethod);
     }
@@ -36,10 +53,17 @@ public final class RequestPermissionDelegateImplByDangerous extends RequestPermi
             return;
         }
 
+        mRequestTime = SystemClock.uptimeMillis();
+        mPausedAfterRequest = false;
         // 如果不需要的话就直接申请全部的危险权限
         requestPermissions(PermissionUtils.convertPermissionArray(permissions), requestCode);
         // 记录一下已申请过的权限（用于更加精准地判断用户是否勾选了《不再询问》）
-        AlreadyRequestPermissionsManager.addAlreadyRequestPermissions(permissions);
+        AlreadyRequestPermissionsManager.addAlreadyRequestPermissions(activity, permissions);
+    }
+
+    @Override
+    public void onFragmentPause() {
+        mPausedAfterRequest = true;
     }
 
     @Override
@@ -50,7 +74,43 @@ public final class RequestPermissionDelegateImplByDangerous extends RequestPermi
         }
         // 释放对这个请求码的占用
         PermissionRequestCodeManager.releaseRequestCode(requestCode);
+        // 已经授予的权限要清除申请过的记录（具体原因可以看 AlreadyRequestPermissionsManager 类的注释）
+        Activity activity = getActivity();
+        if (activity != null && permissions != null && grantResults != null) {
+            for (int i = 0; i < permissions.length && i < grantResults.length; i++) {
+                if (grantResults[i] == PackageManager.PERMISSION_GRANTED) {
+                    AlreadyRequestPermissionsManager.removeAlreadyRequestPermission(activity, permissions[i]);
+                }
+            }
+        }
+        // 记录一下这次请求是否被系统静默忽略了（用于调整下一次申请时的间隔时间）
+        List<IPermission> requestPermissions = getPermissionRequestList();
+        if (requestPermissions != null) {
+            RequestIntervalTimeManager.recordRequestResult(requestPermissions, isSilentlyDropped(grantResults));
+        }
         // 通知权限请求回调
         notificationPermissionCallback();
     }
-}
\ No newline at end of file
+
+    /**
+     * 判断这次权限请求是否被系统静默忽略了
+     *
+     * 申请权限的间隔时间太短的话，有些系统会直接忽略这次请求，不会显示授权框，而是马上回调一个空的或者全部拒绝的结果，
+     * 所以必须同时满足以下三个条件才算是被系统静默忽略了：结果回调得非常快、没有显示过授权框、结果为空或者全部被拒绝，
+     * 需要注意的是，用户在授权框中点了拒绝，这种情况是不算的，因为授权框已经显示出来了
+     */
+    private boolean isSilentlyDropped(@Nullable int[] grantResults) {
+        if (mPausedAfterRequest || SystemClock.uptimeMillis() - mRequestTime > SILENT_DROP_MAX_MILLIS) {
+            return false;
+        }
+        if (grantResults == null) {
+            return true;
+        }
+        for (int grantResult : grantResults) {
+            if (grantResult == PackageManager.PERMISSION_GRANTED) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,15 +1,24 @@
 package com.hjq.permissions.core;
 
 import android.app.Activity;
+import android.content.Context;
+import android.os.AsyncTask;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
 import com.hjq.permissions.manager.ActivityOrientationManager;
+import com.hjq.permissions.manager.RequestIntervalTimeManager;
 import com.hjq.permissions.tools.PermissionVersion;
 import com.hjq.permissions.OnPermissionCallback;
 import com.hjq.permissions.OnPermissionDescription;
 import com.hjq.permissions.OnPermissionInterceptor;
+import com.hjq.permissions.PermissionRequestPhase;
+import com.hjq.permissions.XXPermissions;
+import com.hjq.permissions.tools.ActivityIntentCache;
 import com.hjq.permissions.tools.PermissionApi;
+import com.hjq.permissions.tools.PermissionMetrics;
+import com.hjq.permissions.tools.PermissionMetrics.PhaseSpan;
+import com.hjq.permissions.tools.PermissionSet;
 import com.hjq.permissions.tools.PermissionTaskHandler;
 import com.hjq.permissions.tools.PermissionUtils;
 import com.hjq.permissions.fragment.factory.PermissionFragmentFactory;
@@ -45,6 +54,14 @@ public final class RequestPermissionLogicPresenter {
     @Nullable
     private final OnPermissionCallback mCallBack;
 
+    /** 整个权限请求流程的耗时统计片段 */
+    @Nullable
+    private PhaseSpan mRequestSpan;
+
+    /** 权限授予状态快照（每个处理阶段开始前都会失效一次） */
+    @NonNull
+    private final GrantStateSnapshot mGrantStateSnapshot;
+
     public RequestPermissionLogicPresenter(@NonNull Activity activity,
                                     @NonNull List<IPermission> requestPermissions,
                                     @NonNull PermissionFragmentFactory<?, ?> fragmentFactory,
@@ -57,6 +74,7 @@ public final class RequestPermissionLogicPresenter {
         mPermissionInterceptor = permissionInterceptor;
         mPermissionDescription = permissionDescription;
         mCallBack = callback;
+        mGrantStateSnapshot = new GrantStateSnapshot(activity);
     }
 
     /**
@@ -67,7 +85,17 @@ public final class RequestPermissionLogicPresenter {
             return;
         }
 
-        List<List<IPermission>> unauthorizedPermissions = getUnauthorizedPermissions(mActivity, mRequestPermissions);
+        mRequestSpan = PermissionMetrics.beginPhase(PermissionRequestPhase.REQUEST, mRequestPermissions);
+
+        final GrantStateSnapshot grantStateSnapshot = mGrantStateSnapshot;
+        grantStateSnapshot.invalidate();
+
+        PhaseSpan unauthorizedPermissionsSpan = PermissionMetrics.beginPhase(PermissionRequestPhase.GET_UNAUTHORIZED_PERMISSIONS, mRequestPermissions);
+        List<List<IPermission>> unauthorizedPermissions = getUnauthorizedPermissions(mActivity, mRequestPermissions, grantStateSnapshot);
+        if (XXPermissions.isMergeDangerousPermissionGroups()) {
+            unauthorizedPermissions = mergeForegroundDangerousPermissions(mActivity, unauthorizedPermissions);
+        }
+        PermissionMetrics.endPhase(unauthorizedPermissionsSpan);
         if (unauthorizedPermissions.isEmpty()) {
             // 证明没有权限可以请求，直接处理权限请求结果
             handlePermissionRequestResult();
@@ -92,10 +120,15 @@ public final class RequestPermissionLogicPresenter {
         // 锁定 Activity 屏幕方向
         ActivityOrientationManager.lockActivityOrientation(activity);
 
+        // 趁用户在处理第一批权限的时候，在子线程中提前解析好后面几批特殊权限的设置页意图
+        preloadPendingPermissionIntents(activity, unauthorizedPermissions, firstPermissions);
+
         // 发起权限请求
         requestPermissions(activity, firstPermissions, fragmentFactory, permissionDescription, new Runnable() {
             @Override
             public void run() {
+                // 上一批权限请求已经有结果了，权限的授予状态可能已经发生了变化，所以需要让之前的快照失效
+                grantStateSnapshot.invalidate();
                 List<IPermission> nextPermissions = null;
                 while (iterator.hasNext()) {
                     nextPermissions = iterator.next();
@@ -121,7 +154,7 @@ public final class RequestPermissionLogicPresenter {
                     //    App 用 Dialog 询问了用户要不要发起权限，结果用户选了《是》，但是实际上后台定位权限已经授予了，此时系统不会弹出任何授权框，而是告诉用户授权成功。
                     // 总结：之所以会出现这个问题，是因为第一个请求的权限列表中间不会有延迟，用户根本没有机会干其他事情，所以还能相信权限还是处于没有授予的状态，
                     //      但是到了第二个要请求的权限列表情况就复杂多了，因为你永远想不到用户在前面申请第一个权限列表的时候，那段时间干了什么骚操作。
-                    if (PermissionApi.isGrantedPermissions(activity, nextPermissions)) {
+                    if (grantStateSnapshot.isGrantedPermissions(nextPermissions)) {
                         // 将下一个要请求权限列表置空，表示不会请求它
                         nextPermissions = null;
                         // 上面的权限列表不符合请求的要求，继续循环获取
@@ -148,7 +181,7 @@ public final class RequestPermissionLogicPresenter {
                     // 如果这种情况下还硬要去申请，等下还可能会触发权限说明弹窗，但是没有实际去申请权限的情况
                     if (foregroundPermissions != null && !foregroundPermissions.isEmpty()) {
                         for (IPermission foregroundPermission : foregroundPermissions) {
-                            if (!foregroundPermission.isGrantedPermission(activity)) {
+                            if (!grantStateSnapshot.isGrantedPermission(foregroundPermission)) {
                                 continue;
                             }
                             // 所有的前台权限中，只要有任一一个授权了，就算它是前台权限是申请通过的
@@ -164,35 +197,120 @@ public final class RequestPermissionLogicPresenter {
                 }
 
                 final List<IPermission> finalPermissions = nextPermissions;
-                int maxWaitTimeByPermissions = PermissionApi.getMaxIntervalTimeByPermissions(activity, nextPermissions);
-                if (maxWaitTimeByPermissions == 0) {
+                // 这里用的是根据当前设备学习到的间隔时间，而不是权限声明的间隔时间，具体可以看 RequestIntervalTimeManager 类的注释
+                int requestIntervalTime = RequestIntervalTimeManager.getRequestIntervalTime(activity, nextPermissions);
+                if (requestIntervalTime == 0) {
                     requestPermissions(activity, finalPermissions, fragmentFactory, permissionDescription, this);
                 } else {
-                    PermissionTaskHandler.sendTask(() ->
-                        requestPermissions(activity, finalPermissions, fragmentFactory, permissionDescription, this), maxWaitTimeByPermissions);
+                    PhaseSpan batchIntervalSpan = PermissionMetrics.beginPhase(PermissionRequestPhase.BATCH_INTERVAL, finalPermissions);
+                    PermissionTaskHandler.sendTask(() -> {
+                        PermissionMetrics.endPhase(batchIntervalSpan);
+                        requestPermissions(activity, finalPermissions, fragmentFactory, permissionDescription, () -> {
+                            // 根据这一批权限的申请结果，调整下一次申请时的间隔时间
+                            RequestIntervalTimeManager.updateRequestIntervalTime(activity, finalPermissions);
+                            this.run();
+                        });
+                    }, requestIntervalTime);
                 }
             }
         });
     }
 
+    /**
+     * 将所有前台危险权限合并成一批（合并后的这一批会放在第一批前台危险权限所在的位置）
+     *
+     * 系统是支持一次申请多个不同权限组的危险权限的，合并之后只需要添加一次 Fragment 和等待一次系统回调，
+     * 但是后台权限必须要等前台权限授予之后才能申请，特殊权限需要跳转到设置页，所以这两种还是需要单独成批
+     */
+    @NonNull
+    private static List<List<IPermission>> mergeForegroundDangerousPermissions(@NonNull Activity activity,
+                                                                               @NonNull List<List<IPermission>> unauthorizedPermissions) {
+        List<List<IPermission>> mergedPermissions = new ArrayList<>(unauthorizedPermissions.size());
+        List<IPermission> foregroundDangerousPermissions = null;
+        for (List<IPermission> permissions : unauthorizedPermissions) {
+            if (!isForegroundDangerousPermissions(activity, permissions)) {
+                mergedPermissions.add(permissions);
+                continue;
+            }
+            if (foregroundDangerousPermissions == null) {
+                foregroundDangerousPermissions = new ArrayList<>(permissions);
+                mergedPermissions.add(foregroundDangerousPermissions);
+            } else {
+                foregroundDangerousPermissions.addAll(permissions);
+            }
+        }
+        return mergedPermissions;
+    }
+
+    /**
+     * 判断这一批权限是否都是前台危险权限
+     */
+    private static boolean isForegroundDangerousPermissions(@NonNull Activity activity, @NonNull List<IPermission> permissions) {
+        if (permissions.isEmpty()) {
+            return false;
+        }
+        for (IPermission permission : permissions) {
+            if (permission.getPermissionType() != PermissionType.DANGEROUS || permission.isBackgroundPermission(activity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在子线程中预解析后面几批特殊权限的设置页意图
+     *
+     * 跳转特殊权限设置页之前，需要逐个查询设置页意图有没有对应的 Activity，这是一个跨进程的操作，
+     * 如果等到上一批权限处理完成之后再去查询，这部分的耗时就会体现在两次跳转之间的空档上面，
+     * 而用户在处理当前这一批权限的时候，主线程和子线程基本上都是空闲的，所以可以提前把查询的结果缓存起来，
+     * 等到真正跳转的时候只需要从缓存中读取，另外权限的授予状态还是会在每一批开始之前重新判断，所以提前解析不会影响到流程的正确性
+     */
+    @SuppressWarnings("deprecation")
+    private static void preloadPendingPermissionIntents(@NonNull Activity activity, @NonNull List<List<IPermission>> unauthorizedPermissions,
+                                                        @NonNull List<IPermission> firstPermissions) {
+        List<IPermission> pendingSpecialPermissions = null;
+        for (List<IPermission> permissions : unauthorizedPermissions) {
+            if (permissions == firstPermissions) {
+                continue;
+            }
+            for (IPermission permission : permissions) {
+                if (permission.getPermissionType() != PermissionType.SPECIAL) {
+                    continue;
+                }
+                if (pendingSpecialPermissions == null) {
+                    pendingSpecialPermissions = new ArrayList<>();
+                }
+                pendingSpecialPermissions.add(permission);
+            }
+        }
+        if (pendingSpecialPermissions == null) {
+            return;
+        }
+        // 这里传入 Application 对象，避免子线程持有 Activity 对象导致内存泄漏
+        Context applicationContext = activity.getApplicationContext() != null ? activity.getApplicationContext() : activity;
+        List<IPermission> finalPendingSpecialPermissions = pendingSpecialPermissions;
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(() ->
+            ActivityIntentCache.preloadPermissionIntents(applicationContext, finalPendingSpecialPermissions));
+    }
+
     /**
      * 获取未授权的危险权限
      */
-    private static List<List<IPermission>> getUnauthorizedPermissions(@NonNull Activity activity, @NonNull List<IPermission> requestPermissions) {
+    private static List<List<IPermission>> getUnauthorizedPermissions(@NonNull Activity activity, @NonNull List<IPermission> requestPermissions,
+                                                                        @NonNull GrantStateSnapshot grantStateSnapshot) {
         // 未授权的权限列表
         List<List<IPermission>> unauthorizedPermissions = new ArrayList<>(requestPermissions.size());
-        // 已处理的权限列表
-        List<IPermission> alreadyDonePermissions = new ArrayList<>(requestPermissions.size());
+        // 已处理的权限集合（用位图集合来判断是否处理过，避免在循环中再遍历一遍列表）
+        PermissionSet alreadyDonePermissions = new PermissionSet();
 
         // 遍历需要请求的权限列表
         for (int i = 0; i < requestPermissions.size(); i++) {
             IPermission permission = requestPermissions.get(i);
 
             // 如果这个权限在前面已经处理过了，就不再处理
-            if (PermissionUtils.containsPermission(alreadyDonePermissions, permission)) {
+            if (!alreadyDonePermissions.add(permission)) {
                 continue;
             }
-            alreadyDonePermissions.add(permission);
 
             // 如果这个权限不支持申请，就不纳入申请的范围内
             if (!permission.isSupportRequestPermission(activity)) {
@@ -200,7 +318,7 @@ public final class RequestPermissionLogicPresenter {
             }
 
             // 如果这个权限已授权，就不纳入申请的范围内
-            if (permission.isGrantedPermission(activity)) {
+            if (grantStateSnapshot.isGrantedPermission(permission)) {
                 continue;
             }
 
@@ -237,7 +355,7 @@ public final class RequestPermissionLogicPresenter {
                 }
 
                 // 判断要申请的权限是否授予了
-                if (todoPermission.isGrantedPermission(activity)) {
+                if (grantStateSnapshot.isGrantedPermission(todoPermission)) {
                     // 如果这个权限已经授予，就不往下执行
                     // Github issue 地址：https://github.com/getActivity/XXPermissions/issues/369
                     continue;
@@ -250,11 +368,7 @@ public final class RequestPermissionLogicPresenter {
                 // 添加到待处理的权限列表中
                 todoPermissions.add(todoPermission);
 
-                // 如果这个危险权限在前面已经处理过了，就不再添加
-                if (PermissionUtils.containsPermission(alreadyDonePermissions, todoPermission)) {
-                    continue;
-                }
-                // 添加到已处理的权限列表中
+                // 添加到已处理的权限集合中（如果这个危险权限在前面已经处理过了，就不会再添加）
                 alreadyDonePermissions.add(todoPermission);
             }
 
@@ -264,7 +378,7 @@ public final class RequestPermissionLogicPresenter {
             }
 
             // 如果这个待处理的权限列表已经全部授权，就不纳入申请的范围内
-            if (PermissionApi.isGrantedPermissions(activity, todoPermissions)) {
+            if (grantStateSnapshot.isGrantedPermissions(todoPermissions)) {
                 continue;
             }
 
@@ -303,10 +417,17 @@ public final class RequestPermissionLogicPresenter {
     /**
      * 发起一次权限请求
      */
-    private static void requestPermissions(@NonNull Activity activity, List<IPermission> permissions,
-                                            @NonNull PermissionFragmentFactory<?, ?> fragmentFactory,
-                                            @NonNull OnPermissionDescription permissionDescription,
-                                            @NonNull Runnable finishRunnable) {
+    private void requestPermissions(@NonNull Activity activity, List<IPermission> permissions,
+                                    @NonNull PermissionFragmentFactory<?, ?> fragmentFactory,
+                                    @NonNull OnPermissionDescription permissionDescription,
+                                    @NonNull Runnable originalFinishRunnable) {
+        PhaseSpan batchSpan = PermissionMetrics.beginPhase(PermissionRequestPhase.BATCH, permissions);
+        // 如果不需要统计耗时，就直接用原来的 Runnable，避免创建多余的对象
+        Runnable finishRunnable = batchSpan == null ? originalFinishRunnable : () -> {
+            PermissionMetrics.endPhase(batchSpan);
+            originalFinishRunnable.run();
+        };
+
         if (permissions.isEmpty()) {
             finishRunnable.run();
             return;
@@ -320,41 +441,55 @@ public final class RequestPermissionLogicPresenter {
             return;
         }
 
-        Runnable continueRequestRunnable = () -> fragmentFactory.createAndCommitFragment(permissions, permissionType, new OnPermissionFlowCallback() {
+        Runnable continueRequestRunnable = () -> {
+            PhaseSpan fragmentCommitSpan = PermissionMetrics.beginPhase(PermissionRequestPhase.FRAGMENT_COMMIT, permissions);
+            fragmentFactory.createAndCommitFragment(permissions, permissionType, new OnPermissionFlowCallback() {
 
-            @Override
-            public void onRequestPermissionNow() {
-                permissionDescription.onRequestPermissionStart(activity, permissions);
-            }
+                @Override
+                public void onRequestPermissionNow() {
+                    PermissionMetrics.endPhase(fragmentCommitSpan);
+                    permissionDescription.onRequestPermissionStart(activity, permissions);
+                }
 
-            @Override
-            public void onRequestPermissionFinish() {
-                permissionDescription.onRequestPermissionEnd(activity, permissions);
-                finishRunnable.run();
-            }
+                @Override
+                public void onRequestPermissionFinish() {
+                    PermissionMetrics.endPhase(fragmentCommitSpan);
+                    permissionDescription.onRequestPermissionEnd(activity, permissions);
+                    finishRunnable.run();
+                }
 
-            @Override
-            public void onRequestPermissionAnomaly() {
-                permissionDescription.onRequestPermissionEnd(activity, permissions);
-            }
-        });
+                @Override
+                public void onRequestPermissionAnomaly() {
+                    PermissionMetrics.endPhase(fragmentCommitSpan);
+                    PermissionMetrics.endPhase(batchSpan);
+                    // 出现异常之后，整个权限请求流程就不会再往下走了，所以需要在这里结束统计
+                    PermissionMetrics.endPhase(mRequestSpan);
+                    mRequestSpan = null;
+                    permissionDescription.onRequestPermissionEnd(activity, permissions);
+                }
+            });
+        };
 
         permissionDescription.askWhetherRequestPermission(activity, permissions, continueRequestRunnable, finishRunnable);
     }
 
     /**
-     * 延迟处理权限请求结果
+     * 延迟处理权限请求结果（执行时机由 {@link com.hjq.permissions.PermissionCompletionStrategy} 决定）
      */
     private void postDelayedHandlerRequestPermissionsResult() {
-        PermissionTaskHandler.sendTask(this::handlePermissionRequestResult, 100);
+        PhaseSpan resultDelaySpan = PermissionMetrics.beginPhase(PermissionRequestPhase.RESULT_DELAY, mRequestPermissions);
+        PermissionTaskHandler.sendCompletionTask(() -> {
+            PermissionMetrics.endPhase(resultDelaySpan);
+            handlePermissionRequestResult();
+        });
     }
 
     /**
-     * 延迟解锁 Activity 方向
+     * 延迟解锁 Activity 方向（执行时机由 {@link com.hjq.permissions.PermissionCompletionStrategy} 决定）
      */
     private void postDelayedUnlockActivityOrientation(@NonNull Activity activity) {
         // 延迟执行是为了让外层回调中的代码能够顺序执行完成
-        PermissionTaskHandler.sendTask(() -> ActivityOrientationManager.unlockActivityOrientation(activity), 100);
+        PermissionTaskHandler.sendCompletionTask(() -> ActivityOrientationManager.unlockActivityOrientation(activity));
     }
 
     /**
@@ -369,6 +504,10 @@ public final class RequestPermissionLogicPresenter {
 
         Activity activity = mActivity;
 
+        // 整个权限请求流程到这里就结束了
+        PermissionMetrics.endPhase(mRequestSpan);
+        mRequestSpan = null;
+
         // 如果当前 Activity 不可用，就不继续往下执行代码
         if (PermissionUtils.isActivityUnavailable(activity)) {
             return;
@@ -14,6 +14,9 @@ public interface IFragmentCallback {
     /** Fragment 可见时回调 */
     void onFragmentResume();
 
+    /** Fragment 不可见时回调 */
+    default void onFragmentPause() {}
+
     /** Fragment 解绑时回调 */
     void onFragmentDestroy();
 
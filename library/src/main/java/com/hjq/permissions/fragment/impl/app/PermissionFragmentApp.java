@@ -59,6 +59,12 @@ public abstract class PermissionFragmentApp extends Fragment implements IFragmen
         getRequestPermissionDelegateImpl().onFragmentResume();
     }
 
+    @Override
+    public void onPause() {
+        super.onPause();
+        getRequestPermissionDelegateImpl().onFragmentPause();
+    }
+
     @Override
     public void onDestroy() {
         super.onDestroy();
@@ -59,6 +59,12 @@ public abstract class PermissionFragmentSupport extends Fragment implements
         getRequestPermissionDelegateImpl().onFragmentResume();
     }
 
+    @Override
+    public void onPause() {
+        super.onPause();
+        getRequestPermissionDelegateImpl().onFragmentPause();
+    }
+
     @Override
     public void onDestroy() {
         super.onDestroy();
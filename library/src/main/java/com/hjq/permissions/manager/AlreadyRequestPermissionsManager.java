@@ -1,45 +1,322 @@
 package com.hjq.permissions.manager;
 
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.AsyncTask;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import com.hjq.permissions.permission.PermissionOrdinals;
 import com.hjq.permissions.permission.base.IPermission;
-import com.hjq.permissions.tools.PermissionUtils;
-import java.util.ArrayList;
+import com.hjq.permissions.tools.PermissionTaskHandler;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  *    author : Android 轮子哥
  *    github : https://github.com/getActivity/XXPermissions
  *    time   : 2025/07/13
  *    desc   : 已请求权限的管理类
+ *
+ *             已请求过的权限会持久化到磁盘上面，这样在进程被杀死重启之后，仍然能准确判断用户是否勾选了《不再询问》的选项，
+ *             框架内置的权限按照 {@link PermissionOrdinals} 中的序号存放在位图中，自定义的权限则以权限名称的形式存放
+ *
+ *             需要注意的是：
+ *             1. 权限被授予之后，对应的记录会被清除，因为《仅限这一次》的授权过期、系统自动撤销长期未使用应用的权限，
+ *                都会让权限回到没有申请过的状态，这个时候如果还保留着记录，就会被误判成用户勾选了《不再询问》
+ *             2. 记录是和应用的安装绑定的，如果记录文件是通过备份恢复到一个新安装的应用上面的，那么这些记录会被丢弃
+ *             3. 读取磁盘的操作不会在请求权限的流程中同步执行，还没有读取完成之前，只会使用内存中的记录
  */
 public final class AlreadyRequestPermissionsManager {
 
-    /** 已请求过的权限集 */
-    private static final List<String> ALREADY_REQUEST_PERMISSIONS_LIST = new ArrayList<>();
+    /** 存储文件的名称 */
+    private static final String PREFERENCES_NAME = "xxpermissions_already_request_permissions";
+
+    /** 内置权限位图的存储 key 前缀（后面拼接位图的下标） */
+    private static final String KEY_ORDINAL_BITMAP_PREFIX = "ordinal_bitmap_";
+
+    /** 自定义权限名称集的存储 key */
+    private static final String KEY_CUSTOM_PERMISSIONS = "custom_permissions";
+
+    /** 应用首次安装时间的存储 key（用于判断记录文件是不是从备份中恢复到新安装的应用上面） */
+    private static final String KEY_FIRST_INSTALL_TIME = "first_install_time";
+
+    /** 每个 long 能存放的位数 */
+    private static final int BITS_PER_WORD = 64;
+
+    /** 延迟写入磁盘的时间（在这段时间内的多次修改只会写入一次） */
+    private static final int FLUSH_DELAY_MILLIS = 500;
+
+    /** 写入磁盘任务的令牌 */
+    private static final Object FLUSH_TASK_TOKEN = new Object();
+
+    /** 已请求过的内置权限位图（下标为权限的序号） */
+    private static final AtomicLongArray ALREADY_REQUEST_ORDINAL_BITMAP =
+        new AtomicLongArray((PermissionOrdinals.ORDINAL_COUNT + BITS_PER_WORD - 1) / BITS_PER_WORD);
+
+    /** 在读取磁盘完成之前被清除的内置权限位图（读取完成之后，磁盘中对应的记录不能再合并到内存中） */
+    private static final long[] CLEARED_BEFORE_LOAD_ORDINAL_BITMAP =
+        new long[(PermissionOrdinals.ORDINAL_COUNT + BITS_PER_WORD - 1) / BITS_PER_WORD];
+
+    /** 已请求过的自定义权限集 */
+    private static final Set<String> ALREADY_REQUEST_CUSTOM_PERMISSIONS = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /** 在读取磁盘完成之前被清除的自定义权限集 */
+    private static final Set<String> CLEARED_BEFORE_LOAD_CUSTOM_PERMISSIONS = new HashSet<>();
+
+    /** 是否已经开始读取磁盘 */
+    private static final AtomicBoolean LOAD_STARTED = new AtomicBoolean();
+
+    /** Application 对象（用于写入磁盘） */
+    @Nullable
+    private static volatile Context sApplicationContext;
+
+    /** 是否已经从磁盘中读取过 */
+    private static volatile boolean sLoaded;
+
+    /** 内存中的记录是否有还没有写入磁盘的修改 */
+    private static volatile boolean sDirty;
+
+    /** 应用首次安装的时间 */
+    private static volatile long sFirstInstallTime;
+
+    /** 私有化构造函数 */
+    private AlreadyRequestPermissionsManager() {}
+
+    /**
+     * 从磁盘中读取已请求过的权限（只会读取一次，会阻塞当前线程，所以需要在子线程中调用）
+     */
+    public static void loadAlreadyRequestPermissions(@NonNull Context context) {
+        if (sLoaded) {
+            return;
+        }
+        LOAD_STARTED.set(true);
+        Context applicationContext = getApplicationContext(context);
+        sApplicationContext = applicationContext;
+
+        // 读取磁盘的过程不加锁，避免主线程在添加或者清除记录的时候被阻塞
+        long firstInstallTime = getFirstInstallTime(applicationContext);
+        SharedPreferences preferences = applicationContext.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        long[] diskBitmap = new long[ALREADY_REQUEST_ORDINAL_BITMAP.length()];
+        Set<String> diskCustomPermissions = null;
+        boolean sameInstall = preferences.getLong(KEY_FIRST_INSTALL_TIME, 0) == firstInstallTime;
+        if (sameInstall) {
+            for (int i = 0; i < diskBitmap.length; i++) {
+                diskBitmap[i] = preferences.getLong(KEY_ORDINAL_BITMAP_PREFIX + i, 0);
+            }
+            diskCustomPermissions = preferences.getStringSet(KEY_CUSTOM_PERMISSIONS, null);
+        }
+
+        synchronized (AlreadyRequestPermissionsManager.class) {
+            if (sLoaded) {
+                return;
+            }
+            sFirstInstallTime = firstInstallTime;
+            // 这里需要和内存中的数据合并，因为在读取之前可能已经有权限请求过了，但是在读取之前被清除的记录不能合并回来
+            for (int i = 0; i < diskBitmap.length; i++) {
+                long word = diskBitmap[i] & ~CLEARED_BEFORE_LOAD_ORDINAL_BITMAP[i];
+                if (word != 0) {
+                    setBits(i, word);
+                }
+            }
+            if (diskCustomPermissions != null) {
+                for (String permissionName : diskCustomPermissions) {
+                    if (!CLEARED_BEFORE_LOAD_CUSTOM_PERMISSIONS.contains(permissionName)) {
+                        ALREADY_REQUEST_CUSTOM_PERMISSIONS.add(permissionName);
+                    }
+                }
+            }
+            CLEARED_BEFORE_LOAD_CUSTOM_PERMISSIONS.clear();
+            sLoaded = true;
+            // 如果记录不是当前安装的，需要重新写入一遍，把旧的记录覆盖掉
+            if (!sameInstall) {
+                sDirty = true;
+            }
+        }
+        if (sDirty) {
+            postFlushTask();
+        }
+    }
 
     /**
      * 添加已申请过的权限
      */
-    public static void addAlreadyRequestPermissions(@Nullable List<IPermission> permissions) {
+    public static void addAlreadyRequestPermissions(@NonNull Context context, @Nullable List<IPermission> permissions) {
         if (permissions == null || permissions.isEmpty()) {
             return;
         }
-        for (IPermission permission : permissions) {
-            String permissionName = permission.getPermissionName();
-            if (PermissionUtils.containsPermission(ALREADY_REQUEST_PERMISSIONS_LIST, permissionName)) {
-                continue;
+        loadAlreadyRequestPermissionsAsync(context);
+        boolean changed = false;
+        synchronized (AlreadyRequestPermissionsManager.class) {
+            for (IPermission permission : permissions) {
+                String permissionName = permission.getPermissionName();
+                int ordinal = PermissionOrdinals.getOrdinal(permissionName);
+                if (ordinal != PermissionOrdinals.INVALID_ORDINAL) {
+                    changed |= setBits(ordinal / BITS_PER_WORD, 1L << ordinal);
+                    CLEARED_BEFORE_LOAD_ORDINAL_BITMAP[ordinal / BITS_PER_WORD] &= ~(1L << ordinal);
+                } else {
+                    changed |= ALREADY_REQUEST_CUSTOM_PERMISSIONS.add(permissionName);
+                    CLEARED_BEFORE_LOAD_CUSTOM_PERMISSIONS.remove(permissionName);
+                }
+            }
+        }
+        if (changed) {
+            sDirty = true;
+            postFlushTask();
+        }
+    }
+
+    /**
+     * 清除已申请过的权限记录（在权限被授予之后调用）
+     */
+    public static void removeAlreadyRequestPermission(@NonNull Context context, @Nullable IPermission permission) {
+        if (permission == null) {
+            return;
+        }
+        removeAlreadyRequestPermission(context, permission.getPermissionName());
+    }
+
+    /**
+     * 同上
+     */
+    public static void removeAlreadyRequestPermission(@NonNull Context context, @Nullable String permissionName) {
+        if (permissionName == null) {
+            return;
+        }
+        loadAlreadyRequestPermissionsAsync(context);
+        boolean changed;
+        synchronized (AlreadyRequestPermissionsManager.class) {
+            int ordinal = PermissionOrdinals.getOrdinal(permissionName);
+            if (ordinal != PermissionOrdinals.INVALID_ORDINAL) {
+                changed = clearBits(ordinal / BITS_PER_WORD, 1L << ordinal);
+                if (!sLoaded) {
+                    CLEARED_BEFORE_LOAD_ORDINAL_BITMAP[ordinal / BITS_PER_WORD] |= 1L << ordinal;
+                }
+            } else {
+                changed = ALREADY_REQUEST_CUSTOM_PERMISSIONS.remove(permissionName);
+                if (!sLoaded) {
+                    CLEARED_BEFORE_LOAD_CUSTOM_PERMISSIONS.add(permissionName);
+                }
             }
-            ALREADY_REQUEST_PERMISSIONS_LIST.add(permissionName);
+            // 还没有读取磁盘的情况下，磁盘中可能有这个记录，所以也需要写入一次
+            changed |= !sLoaded;
+        }
+        if (changed) {
+            sDirty = true;
+            postFlushTask();
         }
     }
 
     /**
      * 判断某些权限是否申请过
      */
-    public static boolean isAlreadyRequestPermissions(@Nullable IPermission permission) {
+    public static boolean isAlreadyRequestPermissions(@NonNull Context context, @Nullable IPermission permission) {
         if (permission == null) {
             return false;
         }
-        return PermissionUtils.containsPermission(ALREADY_REQUEST_PERMISSIONS_LIST, permission.getPermissionName());
+        loadAlreadyRequestPermissionsAsync(context);
+        String permissionName = permission.getPermissionName();
+        int ordinal = PermissionOrdinals.getOrdinal(permissionName);
+        if (ordinal != PermissionOrdinals.INVALID_ORDINAL) {
+            return (ALREADY_REQUEST_ORDINAL_BITMAP.get(ordinal / BITS_PER_WORD) & (1L << ordinal)) != 0;
+        }
+        return ALREADY_REQUEST_CUSTOM_PERMISSIONS.contains(permissionName);
+    }
+
+    /**
+     * 在子线程中读取磁盘（如果没有调用过预热方法，会在第一次用到的时候触发）
+     */
+    @SuppressWarnings("deprecation")
+    private static void loadAlreadyRequestPermissionsAsync(@NonNull Context context) {
+        if (sLoaded || !LOAD_STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        Context applicationContext = getApplicationContext(context);
+        sApplicationContext = applicationContext;
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(() -> loadAlreadyRequestPermissions(applicationContext));
+    }
+
+    /**
+     * 将位图中的某些位设置成 1
+     *
+     * @return              如果位图发生了变化则返回 true，反之则返回 false
+     */
+    private static boolean setBits(int wordIndex, long bits) {
+        while (true) {
+            long word = ALREADY_REQUEST_ORDINAL_BITMAP.get(wordIndex);
+            if ((word & bits) == bits) {
+                return false;
+            }
+            if (ALREADY_REQUEST_ORDINAL_BITMAP.compareAndSet(wordIndex, word, word | bits)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 将位图中的某些位设置成 0
+     *
+     * @return              如果位图发生了变化则返回 true，反之则返回 false
+     */
+    private static boolean clearBits(int wordIndex, long bits) {
+        while (true) {
+            long word = ALREADY_REQUEST_ORDINAL_BITMAP.get(wordIndex);
+            if ((word & bits) == 0) {
+                return false;
+            }
+            if (ALREADY_REQUEST_ORDINAL_BITMAP.compareAndSet(wordIndex, word, word & ~bits)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 延迟写入磁盘（短时间内的多次修改会合并成一次写入）
+     */
+    private static void postFlushTask() {
+        PermissionTaskHandler.cancelTask(FLUSH_TASK_TOKEN);
+        PermissionTaskHandler.sendTask(AlreadyRequestPermissionsManager::flush, FLUSH_TASK_TOKEN, FLUSH_DELAY_MILLIS);
+    }
+
+    /**
+     * 写入磁盘（使用 apply 异步写入，不会阻塞主线程）
+     */
+    private static void flush() {
+        Context context = sApplicationContext;
+        // 还没有读取磁盘之前不能写入，否则会把磁盘中的记录覆盖掉，等读取完成之后会再触发一次写入
+        if (context == null || !sLoaded || !sDirty) {
+            return;
+        }
+        sDirty = false;
+        SharedPreferences.Editor editor = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE).edit();
+        editor.putLong(KEY_FIRST_INSTALL_TIME, sFirstInstallTime);
+        for (int i = 0; i < ALREADY_REQUEST_ORDINAL_BITMAP.length(); i++) {
+            editor.putLong(KEY_ORDINAL_BITMAP_PREFIX + i, ALREADY_REQUEST_ORDINAL_BITMAP.get(i));
+        }
+        // 注意：putStringSet 不能直接传入会被修改的集合对象，需要拷贝一份
+        editor.putStringSet(KEY_CUSTOM_PERMISSIONS, new HashSet<>(ALREADY_REQUEST_CUSTOM_PERMISSIONS));
+        editor.apply();
+    }
+
+    /**
+     * 获取应用首次安装的时间（从备份中恢复数据到新安装的应用上面，这个时间是不一样的）
+     */
+    private static long getFirstInstallTime(@NonNull Context context) {
+        try {
+            return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).firstInstallTime;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    @NonNull
+    private static Context getApplicationContext(@NonNull Context context) {
+        Context applicationContext = context.getApplicationContext();
+        return applicationContext != null ? applicationContext : context;
     }
-}
\ No newline at end of file
+}
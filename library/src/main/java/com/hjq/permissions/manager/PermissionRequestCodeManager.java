@@ -2,9 +2,10 @@ package com.hjq.permissions.manager;
 
 import android.support.annotation.IntRange;
 import com.hjq.permissions.XXPermissions;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  *    author : Android 轮子哥
@@ -20,8 +21,27 @@ public final class PermissionRequestCodeManager {
     /** 请求码限制：高值 */
     public static final int REQUEST_CODE_LIMIT_HIGH_VALUE = 65535;
 
-    /** 权限请求码存放集合 */
-    private static final List<Integer> REQUEST_CODE_ARRAY = new ArrayList<>();
+    /** 每个 long 能存放的位数 */
+    private static final int BITS_PER_WORD = 64;
+
+    /**
+     * 请求码占用位图（每一位代表一个请求码是否被占用，覆盖 0 ~ 65535 全部请求码）
+     *
+     * 这里解释一下为什么用 AtomicLongArray 而不是集合：占用和释放请求码都是通过 CAS 修改对应的位来完成的，
+     * 这样就不需要加锁，也不会产生装箱对象，释放请求码的时候也不需要遍历集合，直接清除对应的位即可
+     */
+    private static final AtomicLongArray REQUEST_CODE_BITMAP = new AtomicLongArray((REQUEST_CODE_LIMIT_HIGH_VALUE + 1) / BITS_PER_WORD);
+
+    /**
+     * 借用的请求码集合（key 为请求码，value 为借用的次数）
+     *
+     * 所有的请求码都被占用的时候，只能借用一个已经被占用的请求码，但是这个请求码的占用位仍然属于原来的占用方，
+     * 所以借用方在释放的时候只能减少借用次数，不能清除占用位，否则原来的占用方还在用这个请求码，它就会被分配给别的请求
+     */
+    private static final Map<Integer, Integer> BORROWED_REQUEST_CODE_MAP = new HashMap<>();
+
+    /** 借用的请求码总次数（释放请求码的时候先判断这个值，没有借用的情况下就不需要加锁） */
+    private static volatile int sBorrowedRequestCodeCount;
 
     /** 随机数对象 */
     private static final Random RANDOM = new Random();
@@ -33,9 +53,8 @@ public final class PermissionRequestCodeManager {
      * 随机生成一个请求码
      */
     @IntRange(from = 1, to = 65535)
-    public static synchronized int generateRandomRequestCode(@IntRange(from = 1, to = 65535) int maxRequestCode) {
-        int requestCode;
-        // 请求码随机生成，避免随机产生之前的请求码，必须进行循环判断
+    public static int generateRandomRequestCode(@IntRange(from = 1, to = 65535) int maxRequestCode) {
+        // 请求码随机生成，避免随机产生之前的请求码，必须进行判断
         // 1. 请求码不能为 0 和负数
         // 2. 请求码不能等于 XXPermissions.REQUEST_CODE
         // 3. 尽量避免和当前项目的请求码出现冲突，所以需要抛弃小值的请求码，经过测试，发现以下问题：
@@ -43,28 +62,121 @@ public final class PermissionRequestCodeManager {
         //    b. 使用 Support 包下的 Fragment 进行权限申请，会触发宿主 Activity 回调 onActivityResult 和 onRequestPermissionsResult
         //    这是因为 Support 包 Fragment 权限相关的回调是通过重写 Activity 类的 onActivityResult 和 onRequestPermissionsResult 实现的
         //    而 App 包下 Fragment 的 onActivityResult 和 onRequestPermissionsResult 回调是直接在 Activity 类中的 dispatchActivityResult 中实现的
-        do {
-            // maxRequestCode 目前只有两种值，255 和 65535
-            // 1. 如果外层传入的是 255（可能性较低），那么请求码的取值范围为：(255 / 2 + 1) ~ (255 - 1) = 128 ~ 254
-            // 2. 如果外层传入的是 65535（可能性较大），那么请求码的取值范围为：(65535 - 10000 + 1) ~ (65535 - 1) = 55536 ~ 65534
-            // 代码已经写得那么严谨了，但是仍然可能会出现请求码冲突的问题，虽然概率极低，但是这个时候就只能寄希望给外层的开发者，不要把请求码设定得那么大
-            // 否则会和框架的请求码相冲突，但是出现这种情况的可能性比较低，外层的开发者如果把请求码定太大，会发现调用 startActivityForResult 没反应
-            // 所以基于这个原因，一般设定大值请求码的可能性会比较小，退一万步讲，就算有这种情况，框架会随机从将近一万个数中选择一个，简称万里挑一
-            // 就算最终出现了问题，因为数量占比会很少，加上不是必现（因为是通过随机数生成的），这个问题的影响程度会大大降低，这也是目前能想到的最佳处理方案
-            int minRequestCode = maxRequestCode > 20000 ? maxRequestCode - 10000 : maxRequestCode / 2;
-            requestCode = RANDOM.nextInt(maxRequestCode - minRequestCode) + minRequestCode;
-        } while (requestCode == XXPermissions.REQUEST_CODE ||
-                REQUEST_CODE_ARRAY.contains(requestCode));
-
-        // 标记这个请求码已经被占用
-        REQUEST_CODE_ARRAY.add(requestCode);
+        // maxRequestCode 目前只有两种值，255 和 65535
+        // 1. 如果外层传入的是 255（可能性较低），那么请求码的取值范围为：(255 / 2 + 1) ~ (255 - 1) = 128 ~ 254
+        // 2. 如果外层传入的是 65535（可能性较大），那么请求码的取值范围为：(65535 - 10000 + 1) ~ (65535 - 1) = 55536 ~ 65534
+        // 代码已经写得那么严谨了，但是仍然可能会出现请求码冲突的问题，虽然概率极低，但是这个时候就只能寄希望给外层的开发者，不要把请求码设定得那么大
+        // 否则会和框架的请求码相冲突，但是出现这种情况的可能性比较低，外层的开发者如果把请求码定太大，会发现调用 startActivityForResult 没反应
+        // 所以基于这个原因，一般设定大值请求码的可能性会比较小，退一万步讲，就算有这种情况，框架会随机从将近一万个数中选择一个，简称万里挑一
+        // 就算最终出现了问题，因为数量占比会很少，加上不是必现（因为是通过随机数生成的），这个问题的影响程度会大大降低，这也是目前能想到的最佳处理方案
+        int minRequestCode = maxRequestCode > 20000 ? maxRequestCode - 10000 : maxRequestCode / 2;
+        // 从随机的位置开始往后找第一个没有被占用的请求码，找到末尾之后再从头开始找
+        int startRequestCode = RANDOM.nextInt(maxRequestCode - minRequestCode) + minRequestCode;
+        int requestCode = findAndOccupyRequestCode(startRequestCode, maxRequestCode);
+        if (requestCode == -1) {
+            requestCode = findAndOccupyRequestCode(minRequestCode, startRequestCode);
+        }
+        if (requestCode == -1) {
+            // 所有的请求码都被占用了（理论上不会出现这种情况，除非同时发起了上万个权限请求），
+            // 这种情况下只能退而求其次，借用随机生成的请求码，并且记录下来，避免释放的时候把原来占用方的占用位给清除了
+            borrowRequestCode(startRequestCode);
+            return startRequestCode;
+        }
         return requestCode;
     }
 
+    /**
+     * 借用一个已经被占用的请求码
+     */
+    private static void borrowRequestCode(int requestCode) {
+        synchronized (BORROWED_REQUEST_CODE_MAP) {
+            Integer borrowedCount = BORROWED_REQUEST_CODE_MAP.get(requestCode);
+            BORROWED_REQUEST_CODE_MAP.put(requestCode, borrowedCount != null ? borrowedCount + 1 : 1);
+            sBorrowedRequestCodeCount++;
+        }
+    }
+
+    /**
+     * 归还一个借用的请求码
+     *
+     * @return                  如果这个请求码没有被借用，则返回 false
+     */
+    private static boolean returnBorrowedRequestCode(int requestCode) {
+        synchronized (BORROWED_REQUEST_CODE_MAP) {
+            Integer borrowedCount = BORROWED_REQUEST_CODE_MAP.get(requestCode);
+            if (borrowedCount == null) {
+                return false;
+            }
+            if (borrowedCount > 1) {
+                BORROWED_REQUEST_CODE_MAP.put(requestCode, borrowedCount - 1);
+            } else {
+                BORROWED_REQUEST_CODE_MAP.remove(requestCode);
+            }
+            sBorrowedRequestCodeCount--;
+            return true;
+        }
+    }
+
+    /**
+     * 在 [fromRequestCode, toRequestCode) 范围内查找一个没有被占用的请求码，并将其标记为已占用
+     *
+     * @return                  如果这个范围内的请求码都被占用了，则返回 -1
+     */
+    private static int findAndOccupyRequestCode(int fromRequestCode, int toRequestCode) {
+        int requestCode = fromRequestCode;
+        while (requestCode < toRequestCode) {
+            int wordIndex = requestCode / BITS_PER_WORD;
+            // 当前这个 long 中可用的位（不能小于 requestCode，也不能大于等于 toRequestCode）
+            long rangeMask = -1L << requestCode;
+            int wordEndRequestCode = (wordIndex + 1) * BITS_PER_WORD;
+            if (toRequestCode < wordEndRequestCode) {
+                rangeMask &= (1L << toRequestCode) - 1;
+            }
+            while (true) {
+                long word = REQUEST_CODE_BITMAP.get(wordIndex);
+                long freeBits = ~word & rangeMask;
+                if (freeBits == 0) {
+                    break;
+                }
+                long bit = Long.lowestOneBit(freeBits);
+                int freeRequestCode = wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(bit);
+                if (freeRequestCode == XXPermissions.REQUEST_CODE) {
+                    // 请求码不能等于 XXPermissions.REQUEST_CODE，将这一位从可用的位中剔除掉，然后继续找
+                    rangeMask &= ~bit;
+                    continue;
+                }
+                // 通过 CAS 标记这个请求码已经被占用，如果失败则证明被其他线程抢先修改了，需要重新读取再判断
+                if (REQUEST_CODE_BITMAP.compareAndSet(wordIndex, word, word | bit)) {
+                    return freeRequestCode;
+                }
+            }
+            requestCode = wordEndRequestCode;
+        }
+        return -1;
+    }
+
     /**
      * 释放对某个请求码的占用
      */
-    public static synchronized void releaseRequestCode(int requestCode) {
-        REQUEST_CODE_ARRAY.remove((Integer) requestCode);
+    public static void releaseRequestCode(int requestCode) {
+        if (requestCode < 0 || requestCode > REQUEST_CODE_LIMIT_HIGH_VALUE) {
+            return;
+        }
+        // 如果这是一个借用的请求码，那么只需要归还，占用位仍然属于原来的占用方
+        // 这里不用区分是借用方还是占用方在释放，因为两者拿到的是同一个请求码，只要释放的总次数对得上，最后一次释放就会清除占用位
+        if (sBorrowedRequestCodeCount > 0 && returnBorrowedRequestCode(requestCode)) {
+            return;
+        }
+        int wordIndex = requestCode / BITS_PER_WORD;
+        long bit = 1L << requestCode;
+        while (true) {
+            long word = REQUEST_CODE_BITMAP.get(wordIndex);
+            if ((word & bit) == 0) {
+                return;
+            }
+            if (REQUEST_CODE_BITMAP.compareAndSet(wordIndex, word, word & ~bit)) {
+                return;
+            }
+        }
     }
-}
\ No newline at end of file
+}
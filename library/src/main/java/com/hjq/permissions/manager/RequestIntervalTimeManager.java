@@ -0,0 +1,263 @@
+package com.hjq.permissions.manager;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.hjq.permissions.permission.base.IPermission;
+import com.hjq.permissions.tools.PermissionTaskHandler;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/30
+ *    desc   : 权限请求间隔时间的管理类
+ *
+ *             权限声明的请求间隔时间（{@link IPermission#getRequestIntervalTime(Context)}）是按照最慢的机型来定的，
+ *             这里会根据当前设备上的实际申请结果来学习一个更短的间隔时间，并且持久化到磁盘上面：
+ *             1. 学习的起点就是权限声明的间隔时间，并且学习出来的间隔时间永远不会超过声明的间隔时间
+ *             2. 用缩短后的间隔时间申请权限并且授予成功了，证明当前设备能跟得上，那么下次就再缩短一点
+ *             3. 用缩短后的间隔时间申请权限但是被系统静默忽略了（结果回调得非常快、没有显示授权框、结果为空或者全部被拒绝），
+ *                证明间隔时间太短了，为了稳妥起见，直接恢复成声明的间隔时间，宁可慢一点，也不能让权限申请失败，
+ *                而用户在授权框中点了拒绝，和间隔时间没有关系，所以这种情况下学习到的间隔时间保持不变
+ *             4. 系统版本发生了变化（例如系统升级），之前学习到的结果就不一定适用了，所以会全部清空重新学习
+ *             5. 读取磁盘是在子线程中进行的，在读取完成之前，会直接使用权限声明的间隔时间，并且不会进行学习
+ *
+ *             需要注意：除了 {@link #loadRequestIntervalTime(Context)} 方法，本类的其他方法都只能在主线程中调用
+ */
+public final class RequestIntervalTimeManager {
+
+    /** 存储文件的名称 */
+    private static final String PREFERENCES_NAME = "xxpermissions_request_interval_time";
+
+    /** 系统版本指纹的存储 key */
+    private static final String KEY_BUILD_FINGERPRINT = "build_fingerprint";
+
+    /** 权限声明的间隔时间的存储 key 后缀（权限名称 + 后缀） */
+    private static final String KEY_DECLARED_TIME_SUFFIX = "#declared";
+
+    /** 每次授予成功之后，间隔时间缩短到原来的几分之几（分子） */
+    private static final int SHRINK_NUMERATOR = 3;
+
+    /** 每次授予成功之后，间隔时间缩短到原来的几分之几（分母） */
+    private static final int SHRINK_DENOMINATOR = 4;
+
+    /** 学习出来的间隔时间最短只能是声明的间隔时间的几分之一 */
+    private static final int MIN_TIME_DIVISOR = 3;
+
+    /** 延迟写入磁盘的时间（在这段时间内的多次修改只会写入一次） */
+    private static final int FLUSH_DELAY_MILLIS = 500;
+
+    /** 写入磁盘任务的令牌 */
+    private static final Object FLUSH_TASK_TOKEN = new Object();
+
+    /** 学习到的间隔时间（key 为权限名称） */
+    private static final Map<String, Integer> LEARNED_TIME_MAP = new HashMap<>();
+
+    /** 学习时权限声明的间隔时间（key 为权限名称），如果声明的间隔时间变了，之前学习到的结果就作废 */
+    private static final Map<String, Integer> DECLARED_TIME_MAP = new HashMap<>();
+
+    /** 最近一次申请被系统静默忽略了的权限（key 为权限名称），只会在主线程中访问 */
+    private static final Set<String> SILENTLY_DROPPED_PERMISSIONS = new HashSet<>();
+
+    /** 是否已经开始读取磁盘 */
+    private static final AtomicBoolean LOAD_STARTED = new AtomicBoolean();
+
+    /** Application 对象（用于写入磁盘） */
+    @Nullable
+    private static volatile Context sApplicationContext;
+
+    /** 是否已经从磁盘中读取过（只会在主线程中修改） */
+    private static volatile boolean sLoaded;
+
+    /** 私有化构造函数 */
+    private RequestIntervalTimeManager() {}
+
+    /**
+     * 获取这一批权限的请求间隔时间（取最大值）
+     */
+    public static int getRequestIntervalTime(@NonNull Context context, @Nullable List<IPermission> permissions) {
+        if (permissions == null || permissions.isEmpty()) {
+            return 0;
+        }
+        loadRequestIntervalTimeAsync(context);
+        int maxIntervalTime = 0;
+        for (IPermission permission : permissions) {
+            int declaredTime = permission.getRequestIntervalTime(context);
+            if (declaredTime <= 0) {
+                continue;
+            }
+            maxIntervalTime = Math.max(maxIntervalTime, getLearnedTime(permission.getPermissionName(), declaredTime));
+        }
+        return maxIntervalTime;
+    }
+
+    /**
+     * 记录一批权限的申请结果是否被系统静默忽略了（在收到系统的权限回调时调用）
+     */
+    public static void recordRequestResult(@NonNull List<IPermission> permissions, boolean silentlyDropped) {
+        for (IPermission permission : permissions) {
+            if (silentlyDropped) {
+                SILENTLY_DROPPED_PERMISSIONS.add(permission.getPermissionName());
+            } else {
+                SILENTLY_DROPPED_PERMISSIONS.remove(permission.getPermissionName());
+            }
+        }
+    }
+
+    /**
+     * 根据这一批权限的申请结果更新学习到的间隔时间
+     */
+    public static void updateRequestIntervalTime(@NonNull Context context, @Nullable List<IPermission> permissions) {
+        if (permissions == null || permissions.isEmpty()) {
+            return;
+        }
+        // 还没有读取磁盘的情况下不进行学习，否则写入磁盘的时候会把之前学习到的结果覆盖掉
+        if (!sLoaded) {
+            loadRequestIntervalTimeAsync(context);
+            return;
+        }
+        boolean changed = false;
+        for (IPermission permission : permissions) {
+            String permissionName = permission.getPermissionName();
+            boolean silentlyDropped = SILENTLY_DROPPED_PERMISSIONS.remove(permissionName);
+            int declaredTime = permission.getRequestIntervalTime(context);
+            if (declaredTime <= 0) {
+                continue;
+            }
+            int learnedTime = getLearnedTime(permissionName, declaredTime);
+            int newLearnedTime;
+            if (permission.isGrantedPermission(context)) {
+                newLearnedTime = Math.max(declaredTime / MIN_TIME_DIVISOR, learnedTime * SHRINK_NUMERATOR / SHRINK_DENOMINATOR);
+            } else if (silentlyDropped) {
+                newLearnedTime = declaredTime;
+            } else {
+                // 用户拒绝了权限，和间隔时间没有关系，保持不变
+                newLearnedTime = learnedTime;
+            }
+            if (newLearnedTime == learnedTime && isSameDeclaredTime(permissionName, declaredTime)) {
+                continue;
+            }
+            LEARNED_TIME_MAP.put(permissionName, newLearnedTime);
+            DECLARED_TIME_MAP.put(permissionName, declaredTime);
+            changed = true;
+        }
+        if (changed) {
+            postFlushTask();
+        }
+    }
+
+    /**
+     * 获取学习到的间隔时间
+     */
+    private static int getLearnedTime(@NonNull String permissionName, int declaredTime) {
+        Integer learnedTime = LEARNED_TIME_MAP.get(permissionName);
+        if (learnedTime == null || !isSameDeclaredTime(permissionName, declaredTime)) {
+            return declaredTime;
+        }
+        return Math.min(learnedTime, declaredTime);
+    }
+
+    /**
+     * 判断权限声明的间隔时间和学习时的是否一致
+     */
+    private static boolean isSameDeclaredTime(@NonNull String permissionName, int declaredTime) {
+        Integer learnedDeclaredTime = DECLARED_TIME_MAP.get(permissionName);
+        return learnedDeclaredTime != null && learnedDeclaredTime == declaredTime;
+    }
+
+    /**
+     * 从磁盘中读取学习到的间隔时间（只会读取一次，会阻塞当前线程，所以需要在子线程中调用）
+     */
+    public static void loadRequestIntervalTime(@NonNull Context context) {
+        // 如果已经在子线程中开始读取了，这里就不需要再读取一次了
+        if (sLoaded || !LOAD_STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        Context applicationContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        sApplicationContext = applicationContext;
+        readRequestIntervalTime(applicationContext);
+    }
+
+    /**
+     * 在子线程中读取磁盘（如果没有调用过预热方法，会在第一次用到的时候触发）
+     */
+    @SuppressWarnings("deprecation")
+    private static void loadRequestIntervalTimeAsync(@NonNull Context context) {
+        if (sLoaded || !LOAD_STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        Context applicationContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        sApplicationContext = applicationContext;
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(() -> readRequestIntervalTime(applicationContext));
+    }
+
+    /**
+     * 读取磁盘中学习到的间隔时间，并交给主线程合并（调用前需要先抢到 {@link #LOAD_STARTED} 标记，保证只会读取一次）
+     */
+    private static void readRequestIntervalTime(@NonNull Context applicationContext) {
+        SharedPreferences preferences = applicationContext.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        Map<String, Integer> learnedTimeMap = new HashMap<>();
+        Map<String, Integer> declaredTimeMap = new HashMap<>();
+        if (Build.FINGERPRINT.equals(preferences.getString(KEY_BUILD_FINGERPRINT, null))) {
+            for (Map.Entry<String, ?> entry : preferences.getAll().entrySet()) {
+                String key = entry.getKey();
+                Object value = entry.getValue();
+                if (!(value instanceof Integer)) {
+                    continue;
+                }
+                if (key.endsWith(KEY_DECLARED_TIME_SUFFIX)) {
+                    declaredTimeMap.put(key.substring(0, key.length() - KEY_DECLARED_TIME_SUFFIX.length()), (Integer) value);
+                } else {
+                    learnedTimeMap.put(key, (Integer) value);
+                }
+            }
+        } else {
+            // 系统版本发生了变化，之前学习到的结果全部作废
+            preferences.edit().clear().putString(KEY_BUILD_FINGERPRINT, Build.FINGERPRINT).apply();
+        }
+        // 读取到的结果交给主线程合并，这样内存中的数据就只会在主线程中被访问
+        PermissionTaskHandler.sendTask(() -> {
+            if (sLoaded) {
+                return;
+            }
+            LEARNED_TIME_MAP.putAll(learnedTimeMap);
+            DECLARED_TIME_MAP.putAll(declaredTimeMap);
+            sLoaded = true;
+        }, 0);
+    }
+
+    /**
+     * 延迟写入磁盘（短时间内的多次修改会合并成一次写入）
+     */
+    private static void postFlushTask() {
+        PermissionTaskHandler.cancelTask(FLUSH_TASK_TOKEN);
+        PermissionTaskHandler.sendTask(RequestIntervalTimeManager::flush, FLUSH_TASK_TOKEN, FLUSH_DELAY_MILLIS);
+    }
+
+    /**
+     * 写入磁盘（使用 apply 异步写入，不会阻塞主线程）
+     */
+    private static void flush() {
+        Context context = sApplicationContext;
+        if (context == null || !sLoaded) {
+            return;
+        }
+        SharedPreferences.Editor editor = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE).edit();
+        for (Map.Entry<String, Integer> entry : LEARNED_TIME_MAP.entrySet()) {
+            editor.putInt(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Integer> entry : DECLARED_TIME_MAP.entrySet()) {
+            editor.putInt(entry.getKey() + KEY_DECLARED_TIME_SUFFIX, entry.getValue());
+        }
+        editor.apply();
+    }
+}
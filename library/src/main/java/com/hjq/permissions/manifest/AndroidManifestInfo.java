@@ -9,7 +9,9 @@ import com.hjq.permissions.manifest.node.PermissionManifestInfo;
 import com.hjq.permissions.manifest.node.ServiceManifestInfo;
 import com.hjq.permissions.manifest.node.UsesSdkManifestInfo;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  *    author : Android 轮子哥
@@ -31,6 +33,10 @@ public final class AndroidManifestInfo {
     @NonNull
     public final List<PermissionManifestInfo> permissionManifestInfoList = new ArrayList<>();
 
+    /** 权限节点信息（以权限名称作为 key 的索引） */
+    @NonNull
+    public final Map<String, PermissionManifestInfo> permissionManifestInfoMap = new HashMap<>();
+
     /** 查询包名列表 */
     @NonNull
     public final List<String> queriesPackageList = new ArrayList<>();
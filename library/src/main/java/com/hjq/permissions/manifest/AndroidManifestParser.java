@@ -6,6 +6,7 @@ import android.content.res.AssetManager;
 import android.content.res.XmlResourceParser;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.text.TextUtils;
 import com.hjq.permissions.manifest.node.ActivityManifestInfo;
 import com.hjq.permissions.manifest.node.ApplicationManifestInfo;
 import com.hjq.permissions.manifest.node.BroadcastReceiverManifestInfo;
@@ -59,12 +60,57 @@ public final class AndroidManifestParser {
 
     private AndroidManifestParser() {}
 
+    /** 清单文件信息缓存的 key（由 apk 路径和应用最后一次更新的时间组成） */
+    @Nullable
+    private static String sAndroidManifestInfoCacheKey;
+
+    /** 清单文件信息缓存 */
+    @Nullable
+    private static AndroidManifestInfo sAndroidManifestInfoCache;
+
     /**
      * 获取当前应用的清单文件信息
+     *
+     * 解析清单文件需要反射 AssetManager 的方法，再把整个二进制清单文件遍历一遍，这个过程是比较耗时的，
+     * 而在检测模式下每次请求权限都会用到清单文件信息，所以这里以 apk 路径和应用最后一次更新的时间作为 key 进行缓存，
+     * 只要应用没有被覆盖安装过，就直接复用上一次的解析结果，这里用 synchronized 修饰是为了避免多个线程同时解析
+     */
+    @Nullable
+    public static synchronized AndroidManifestInfo getAndroidManifestInfo(@NonNull Context context) {
+        String apkPath = context.getApplicationInfo().sourceDir;
+        if (TextUtils.isEmpty(apkPath)) {
+            return null;
+        }
+        // 这里不用 apk 文件的修改时间，是因为系统在安装 apk 的时候不一定会保留或者更新文件的修改时间，
+        // 有些厂商的系统会把预装应用的 apk 文件修改时间统一成一个固定值，而 lastUpdateTime 是由 PackageManager 维护的，更可靠
+        String cacheKey = apkPath + "#" + getLastUpdateTime(context);
+        if (cacheKey.equals(sAndroidManifestInfoCacheKey)) {
+            return sAndroidManifestInfoCache;
+        }
+        AndroidManifestInfo androidManifestInfo = parseAndroidManifestInfo(context, apkPath);
+        sAndroidManifestInfoCacheKey = cacheKey;
+        sAndroidManifestInfoCache = androidManifestInfo;
+        return androidManifestInfo;
+    }
+
+    /**
+     * 获取应用最后一次更新的时间（首次安装的时候和首次安装的时间一样），获取失败则为 0
+     */
+    private static long getLastUpdateTime(@NonNull Context context) {
+        try {
+            return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * 解析当前应用的清单文件信息
      */
     @Nullable
-    public static AndroidManifestInfo getAndroidManifestInfo(Context context) {
-        int apkPathCookie = AndroidManifestParser.findApkPathCookie(context, context.getApplicationInfo().sourceDir);
+    private static AndroidManifestInfo parseAndroidManifestInfo(@NonNull Context context, @NonNull String apkPath) {
+        int apkPathCookie = AndroidManifestParser.findApkPathCookie(context, apkPath);
         // 如果 cookie 为 0，证明获取失败
         if (apkPathCookie == 0) {
             return null;
@@ -169,7 +215,12 @@ public final class AndroidManifestParser {
                 if (PermissionUtils.equalsString(TAG_USES_PERMISSION, tagName) ||
                     PermissionUtils.equalsString(TAG_USES_PERMISSION_SDK_23, tagName) ||
                     PermissionUtils.equalsString(TAG_USES_PERMISSION_SDK_M, tagName)) {
-                    manifestInfo.permissionManifestInfoList.add(parsePermissionFromXml(parser));
+                    PermissionManifestInfo permissionManifestInfo = parsePermissionFromXml(parser);
+                    manifestInfo.permissionManifestInfoList.add(permissionManifestInfo);
+                    // 同一个权限可能会被注册多次（例如 uses-permission 和 uses-permission-sdk-23），这里以第一次出现的为准
+                    if (permissionManifestInfo.name != null && !manifestInfo.permissionManifestInfoMap.containsKey(permissionManifestInfo.name)) {
+                        manifestInfo.permissionManifestInfoMap.put(permissionManifestInfo.name, permissionManifestInfo);
+                    }
                 }
 
                 if (PermissionUtils.equalsString(TAG_QUERIES, tagName)) {
@@ -6,7 +6,6 @@ import android.app.admin.DeviceAdminReceiver;
 import android.service.notification.NotificationListenerService;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.support.v4.util.LruCache;
 import com.hjq.permissions.permission.base.IPermission;
 import com.hjq.permissions.permission.common.StandardDangerousPermission;
 import com.hjq.permissions.permission.dangerous.AccessBackgroundLocationPermission;
@@ -42,6 +41,11 @@ import com.hjq.permissions.permission.special.SystemAlertWindowPermission;
 import com.hjq.permissions.permission.special.UseFullScreenIntentPermission;
 import com.hjq.permissions.permission.special.WriteSettingsPermission;
 import com.hjq.permissions.tools.PermissionVersion;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  *    author : Android 轮子哥
@@ -60,7 +64,7 @@ public final class PermissionLists {
     private static final int PERMISSION_COUNT = 54;
 
     /**
-     * 权限对象缓存集合
+     * 权限对象缓存集合（以 {@link PermissionOrdinals} 中的权限序号作为下标）
      *
      * 这里解释一下为什么将 IPermission 对象缓存到集合中？而不是定义成静态变量或者常量？有几个原因：
      *
@@ -70,8 +74,15 @@ public final class PermissionLists {
      * 2. 如果直接定义成常量或静态变量，还有另外一个问题，就是一旦有谁第一次访问到本类，就会初始化很多对象，
      *    不管这个权限有没有用到，都会在第一次访问的时候初始化完，这样对性能其实不太好的，虽然这点性能微不足道，
      *    但是本着能省一点是一点的原则，所以搞了一个静态集合来存放这些权限对象，调用的时候发现没有再去创建。
+     *
+     * 另外解释一下为什么不用 LruCache：权限对象的数量是固定的，根本不需要淘汰机制，而 LruCache 的 get 方法是加锁的，
+     * 多个线程同时查询权限状态的时候会互相阻塞，万一发生了淘汰还会创建出重复的权限对象，
+     * 而这里用 AtomicReferenceArray 存放，读取不需要加锁，写入用 CAS 保证同一个权限只会有一个对象被存放进去
      */
-    private static final LruCache<String, IPermission> PERMISSION_CACHE_MAP = new LruCache<>(PERMISSION_COUNT);
+    private static final AtomicReferenceArray<IPermission> PERMISSION_CACHE_ARRAY = new AtomicReferenceArray<>(PermissionOrdinals.ORDINAL_COUNT);
+
+    /** 是否已经预加载过所有无参的权限对象 */
+    private static volatile boolean sAllPermissionsPreloaded;
 
     /**
      * 获取缓存的权限对象
@@ -80,17 +91,81 @@ public final class PermissionLists {
      */
     @Nullable
     private static IPermission getCachePermission(@NonNull String permissionName) {
-        return PERMISSION_CACHE_MAP.get(permissionName);
+        int ordinal = PermissionOrdinals.getOrdinal(permissionName);
+        if (ordinal == PermissionOrdinals.INVALID_ORDINAL) {
+            return null;
+        }
+        return PERMISSION_CACHE_ARRAY.get(ordinal);
     }
 
     /**
      * 添加权限对象到缓存中
      *
      * @param permission                权限对象
+     * @return                          缓存中的权限对象（如果其他线程抢先放入了，则返回其他线程放入的那个对象）
      */
     private static IPermission putCachePermission(@NonNull IPermission permission) {
-        PERMISSION_CACHE_MAP.put(permission.getPermissionName(), permission);
-        return permission;
+        int ordinal = PermissionOrdinals.getOrdinal(permission);
+        if (ordinal == PermissionOrdinals.INVALID_ORDINAL) {
+            return permission;
+        }
+        if (PERMISSION_CACHE_ARRAY.compareAndSet(ordinal, null, permission)) {
+            return permission;
+        }
+        IPermission cachePermission = PERMISSION_CACHE_ARRAY.get(ordinal);
+        return cachePermission != null ? cachePermission : permission;
+    }
+
+    /**
+     * 根据权限名称获取对应的权限对象
+     *
+     * @param permissionName        权限名称
+     * @return                      如果不是框架内置的权限，或者是需要传入参数才能创建的权限（例如通知栏监听权限），则返回 null
+     *
+     * 需要注意的是：第一次调用本方法并且对应的权限对象还没有创建过的时候，会通过反射预加载所有无参的权限对象，
+     * 之后的调用都只是一次数组下标读取，不会再有额外的开销
+     */
+    @Nullable
+    public static IPermission byName(@Nullable String permissionName) {
+        int ordinal = PermissionOrdinals.getOrdinal(permissionName);
+        if (ordinal == PermissionOrdinals.INVALID_ORDINAL) {
+            return null;
+        }
+        IPermission permission = PERMISSION_CACHE_ARRAY.get(ordinal);
+        if (permission != null || sAllPermissionsPreloaded) {
+            return permission;
+        }
+        preloadPermissions();
+        return PERMISSION_CACHE_ARRAY.get(ordinal);
+    }
+
+    /**
+     * 预加载所有无参的权限对象（用于预热，建议在子线程中调用）
+     *
+     * @return                  预加载的权限对象列表
+     *
+     * 这里解释一下为什么要通过反射调用，而不是直接调用所有的静态方法：如果直接调用了，那么代码混淆的时候，
+     * 就算外层没有用到这些权限，这些静态方法和对应的权限类也都不会被剔除掉，这样就违背了用静态方法来定义权限的初衷，
+     * 而通过反射的方式，只会调用到那些没有被混淆剔除掉的静态方法，也就是外层真正用到的那些权限
+     */
+    @NonNull
+    public static List<IPermission> preloadPermissions() {
+        List<IPermission> permissions = new ArrayList<>(PERMISSION_COUNT);
+        for (Method method : PermissionLists.class.getDeclaredMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers())) {
+                continue;
+            }
+            if (method.getParameterTypes().length != 0 || !IPermission.class.isAssignableFrom(method.getReturnType())) {
+                continue;
+            }
+            try {
+                permissions.add((IPermission) method.invoke(null));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        sAllPermissionsPreloaded = true;
+        return permissions;
     }
 
     /**
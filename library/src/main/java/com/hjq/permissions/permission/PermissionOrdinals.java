@@ -0,0 +1,119 @@
+package com.hjq.permissions.permission;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/23
+ *    desc   : 框架内置权限的序号表（每个内置权限都有一个从 0 开始的连续序号，用于位图集合的下标）
+ */
+public final class PermissionOrdinals {
+
+    /** 内置权限名称列表（数组的下标即为权限的序号，序号会被持久化到磁盘上面，所以新增权限只能往后面追加，不能调整已有权限的顺序） */
+    private static final String[] PERMISSION_NAMES = {
+        PermissionNames.GET_INSTALLED_APPS,
+        PermissionNames.USE_FULL_SCREEN_INTENT,
+        PermissionNames.SCHEDULE_EXACT_ALARM,
+        PermissionNames.MANAGE_EXTERNAL_STORAGE,
+        PermissionNames.REQUEST_INSTALL_PACKAGES,
+        PermissionNames.PICTURE_IN_PICTURE,
+        PermissionNames.SYSTEM_ALERT_WINDOW,
+        PermissionNames.WRITE_SETTINGS,
+        PermissionNames.REQUEST_IGNORE_BATTERY_OPTIMIZATIONS,
+        PermissionNames.ACCESS_NOTIFICATION_POLICY,
+        PermissionNames.PACKAGE_USAGE_STATS,
+        PermissionNames.BIND_NOTIFICATION_LISTENER_SERVICE,
+        PermissionNames.BIND_VPN_SERVICE,
+        PermissionNames.NOTIFICATION_SERVICE,
+        PermissionNames.BIND_ACCESSIBILITY_SERVICE,
+        PermissionNames.BIND_DEVICE_ADMIN,
+        PermissionNames.READ_MEDIA_VISUAL_USER_SELECTED,
+        PermissionNames.POST_NOTIFICATIONS,
+        PermissionNames.NEARBY_WIFI_DEVICES,
+        PermissionNames.BODY_SENSORS_BACKGROUND,
+        PermissionNames.READ_MEDIA_IMAGES,
+        PermissionNames.READ_MEDIA_VIDEO,
+        PermissionNames.READ_MEDIA_AUDIO,
+        PermissionNames.BLUETOOTH_SCAN,
+        PermissionNames.BLUETOOTH_CONNECT,
+        PermissionNames.BLUETOOTH_ADVERTISE,
+        PermissionNames.ACCESS_BACKGROUND_LOCATION,
+        PermissionNames.ACTIVITY_RECOGNITION,
+        PermissionNames.ACCESS_MEDIA_LOCATION,
+        PermissionNames.ACCEPT_HANDOVER,
+        PermissionNames.READ_PHONE_NUMBERS,
+        PermissionNames.ANSWER_PHONE_CALLS,
+        PermissionNames.READ_EXTERNAL_STORAGE,
+        PermissionNames.WRITE_EXTERNAL_STORAGE,
+        PermissionNames.CAMERA,
+        PermissionNames.RECORD_AUDIO,
+        PermissionNames.ACCESS_FINE_LOCATION,
+        PermissionNames.ACCESS_COARSE_LOCATION,
+        PermissionNames.READ_CONTACTS,
+        PermissionNames.WRITE_CONTACTS,
+        PermissionNames.GET_ACCOUNTS,
+        PermissionNames.READ_CALENDAR,
+        PermissionNames.WRITE_CALENDAR,
+        PermissionNames.READ_PHONE_STATE,
+        PermissionNames.CALL_PHONE,
+        PermissionNames.READ_CALL_LOG,
+        PermissionNames.WRITE_CALL_LOG,
+        PermissionNames.ADD_VOICEMAIL,
+        PermissionNames.USE_SIP,
+        PermissionNames.PROCESS_OUTGOING_CALLS,
+        PermissionNames.BODY_SENSORS,
+        PermissionNames.SEND_SMS,
+        PermissionNames.RECEIVE_SMS,
+        PermissionNames.READ_SMS,
+        PermissionNames.RECEIVE_WAP_PUSH,
+        PermissionNames.RECEIVE_MMS
+    };
+
+    /** 内置权限的数量 */
+    public static final int ORDINAL_COUNT = PERMISSION_NAMES.length;
+
+    /** 无效的序号（自定义的权限没有序号） */
+    public static final int INVALID_ORDINAL = -1;
+
+    /** 权限名称和序号的映射表 */
+    private static final Map<String, Integer> PERMISSION_ORDINAL_MAP = new HashMap<>(ORDINAL_COUNT * 2);
+
+    static {
+        for (int i = 0; i < PERMISSION_NAMES.length; i++) {
+            PERMISSION_ORDINAL_MAP.put(PERMISSION_NAMES[i], i);
+        }
+    }
+
+    private PermissionOrdinals() {}
+
+    /**
+     * 获取权限的序号，如果不是框架内置的权限，则返回 {@link #INVALID_ORDINAL}
+     */
+    public static int getOrdinal(@NonNull IPermission permission) {
+        return getOrdinal(permission.getPermissionName());
+    }
+
+    /**
+     * 同上
+     */
+    public static int getOrdinal(@Nullable String permissionName) {
+        if (permissionName == null) {
+            return INVALID_ORDINAL;
+        }
+        Integer ordinal = PERMISSION_ORDINAL_MAP.get(permissionName);
+        return ordinal != null ? ordinal : INVALID_ORDINAL;
+    }
+
+    /**
+     * 根据序号获取权限名称
+     */
+    @NonNull
+    public static String getPermissionName(int ordinal) {
+        return PERMISSION_NAMES[ordinal];
+    }
+}
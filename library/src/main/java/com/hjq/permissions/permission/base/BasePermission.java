@@ -19,6 +19,8 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *    author : Android 轮子哥
@@ -31,6 +33,27 @@ public abstract class BasePermission implements IPermission {
     /** Op 权限模式：未知模式 */
     public static final int MODE_UNKNOWN = -1;
 
+    /** Op 字段值：在 AppOpsManager 中找不到这个字段 */
+    private static final int OP_FIELD_VALUE_NOT_FOUND = Integer.MIN_VALUE;
+
+    /** Op 字段值：在 AppOpsManager 中有这个字段，但是读取不到它的值 */
+    private static final int OP_FIELD_VALUE_UNREADABLE = Integer.MIN_VALUE + 1;
+
+    /**
+     * AppOpsManager 中 Op 字段值的缓存集合
+     *
+     * 这些字段都是静态常量，在进程的生命周期内是不会变化的，所以反射一次之后就可以缓存起来，
+     * 找不到的字段也需要缓存起来（以 {@link #OP_FIELD_VALUE_NOT_FOUND} 的形式），否则每次判断权限都会重新反射一遍
+     */
+    private static final Map<String, Integer> OP_FIELD_VALUE_CACHE_MAP = new ConcurrentHashMap<>();
+
+    /** AppOpsManager.checkOpNoThrow(int, int, String) 方法对象 */
+    @Nullable
+    private static volatile Method sCheckOpNoThrowMethod;
+
+    /** AppOpsManager.checkOpNoThrow(int, int, String) 方法是否反射过 */
+    private static volatile boolean sCheckOpNoThrowMethodResolved;
+
     protected BasePermission() {
         // default implementation ignored
     }
@@ -101,7 +124,7 @@ public abstract class BasePermission implements IPermission {
         // 检查 AndroidManifest.xml 是否符合要求
         if (androidManifestInfo != null) {
             List<PermissionManifestInfo> permissionManifestInfoList = androidManifestInfo.permissionManifestInfoList;
-            PermissionManifestInfo currentPermissionManifestInfo = findPermissionInfoByList(permissionManifestInfoList, getPermissionName());
+            PermissionManifestInfo currentPermissionManifestInfo = findPermissionInfoByManifest(androidManifestInfo, getPermissionName());
             checkSelfByManifestFile(activity, requestPermissions, androidManifestInfo, permissionManifestInfoList,
                 currentPermissionManifestInfo);
         }
@@ -172,6 +195,14 @@ public abstract class BasePermission implements IPermission {
         checkPermissionRegistrationStatus(permissionManifestInfo, checkPermission, lowestMaxSdkVersion);
     }
 
+    protected static void checkPermissionRegistrationStatus(@NonNull AndroidManifestInfo androidManifestInfo, @NonNull String checkPermission) {
+        checkPermissionRegistrationStatus(androidManifestInfo, checkPermission, Integer.MAX_VALUE);
+    }
+
+    protected static void checkPermissionRegistrationStatus(@NonNull AndroidManifestInfo androidManifestInfo, @NonNull String checkPermission, int lowestMaxSdkVersion) {
+        checkPermissionRegistrationStatus(findPermissionInfoByManifest(androidManifestInfo, checkPermission), checkPermission, lowestMaxSdkVersion);
+    }
+
     protected static void checkPermissionRegistrationStatus(@Nullable PermissionManifestInfo permissionManifestInfo, @NonNull String checkPermission, int lowestMaxSdkVersion) {
         if (permissionManifestInfo == null) {
             // 动态申请的权限没有在清单文件中注册，分为以下两种情况：
@@ -230,6 +261,21 @@ public abstract class BasePermission implements IPermission {
         return permissionManifestInfo;
     }
 
+    /**
+     * 从清单文件信息中获取指定的权限信息
+     */
+    @Nullable
+    public static PermissionManifestInfo findPermissionInfoByManifest(@NonNull AndroidManifestInfo androidManifestInfo, @NonNull String permissionName) {
+        Map<String, PermissionManifestInfo> permissionManifestInfoMap = androidManifestInfo.permissionManifestInfoMap;
+        List<PermissionManifestInfo> permissionManifestInfoList = androidManifestInfo.permissionManifestInfoList;
+        // 优先从按权限名称建立的索引中查找，这样就不用每次都遍历一遍权限列表
+        if (!permissionManifestInfoMap.isEmpty() || permissionManifestInfoList.isEmpty()) {
+            return permissionManifestInfoMap.get(permissionName);
+        }
+        // 如果索引是空的，但是列表不是空的，证明这个对象不是通过框架解析出来的，这种情况下再去遍历一遍权限列表
+        return findPermissionInfoByList(permissionManifestInfoList, permissionName);
+    }
+
     /**
      * 判断某个危险权限是否授予了
      */
@@ -343,16 +389,18 @@ public abstract class BasePermission implements IPermission {
         if (appOpsManager == null) {
             return MODE_UNKNOWN;
         }
+        int opValue = getOpFieldValue(opName);
+        if (opValue == OP_FIELD_VALUE_UNREADABLE) {
+            return MODE_UNKNOWN;
+        }
+        if (opValue == OP_FIELD_VALUE_NOT_FOUND) {
+            opValue = opDefaultValue;
+        }
+        Method checkOpNoThrowMethod = getCheckOpNoThrowMethod();
+        if (checkOpNoThrowMethod == null) {
+            return MODE_UNKNOWN;
+        }
         try {
-            Class<?> appOpsClass = Class.forName(AppOpsManager.class.getName());
-            int opValue;
-            try {
-                Field opField = appOpsClass.getDeclaredField(opName);
-                opValue = (int) opField.get(Integer.class);
-            } catch (NoSuchFieldException e) {
-                opValue = opDefaultValue;
-            }
-            Method checkOpNoThrowMethod = appOpsClass.getMethod("checkOpNoThrow", Integer.TYPE, Integer.TYPE, String.class);
             return ((int) checkOpNoThrowMethod.invoke(appOpsManager, opValue, context.getApplicationInfo().uid, context.getPackageName()));
         } catch (Exception e) {
             e.printStackTrace();
@@ -360,6 +408,56 @@ public abstract class BasePermission implements IPermission {
         }
     }
 
+    /**
+     * 获取 AppOpsManager 中某个 Op 字段的值（反射的结果会被缓存）
+     *
+     * @return                      如果找不到这个字段则返回 {@link #OP_FIELD_VALUE_NOT_FOUND}，
+     *                              如果读取不到这个字段的值则返回 {@link #OP_FIELD_VALUE_UNREADABLE}
+     */
+    private static int getOpFieldValue(@Nullable String opName) {
+        if (opName == null) {
+            // ConcurrentHashMap 不支持以 null 作为 key，这里直接当做读取不到字段的值来处理
+            return OP_FIELD_VALUE_UNREADABLE;
+        }
+        Integer cacheValue = OP_FIELD_VALUE_CACHE_MAP.get(opName);
+        if (cacheValue != null) {
+            return cacheValue;
+        }
+        int opValue;
+        try {
+            Field opField = AppOpsManager.class.getDeclaredField(opName);
+            opValue = (int) opField.get(Integer.class);
+        } catch (NoSuchFieldException e) {
+            opValue = OP_FIELD_VALUE_NOT_FOUND;
+        } catch (Exception e) {
+            e.printStackTrace();
+            opValue = OP_FIELD_VALUE_UNREADABLE;
+        }
+        OP_FIELD_VALUE_CACHE_MAP.put(opName, opValue);
+        return opValue;
+    }
+
+    /**
+     * 获取 AppOpsManager.checkOpNoThrow(int, int, String) 方法对象（只会反射一次）
+     */
+    @Nullable
+    private static Method getCheckOpNoThrowMethod() {
+        if (sCheckOpNoThrowMethodResolved) {
+            return sCheckOpNoThrowMethod;
+        }
+        synchronized (BasePermission.class) {
+            if (!sCheckOpNoThrowMethodResolved) {
+                try {
+                    sCheckOpNoThrowMethod = AppOpsManager.class.getMethod("checkOpNoThrow", Integer.TYPE, Integer.TYPE, String.class);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                sCheckOpNoThrowMethodResolved = true;
+            }
+        }
+        return sCheckOpNoThrowMethod;
+    }
+
     /**
      * 判断 AppOpsManager 是否存在某个 Op 权限
      *
@@ -367,14 +465,10 @@ public abstract class BasePermission implements IPermission {
      */
     @RequiresApi(PermissionVersion.ANDROID_4_4)
     public static boolean isExistOpPermission(String opName) {
-        try {
-            Class<?> appOpsClass = Class.forName(AppOpsManager.class.getName());
-            appOpsClass.getDeclaredField(opName);
-            // 证明有这个字段，返回 true
-            return true;
-        } catch (Exception ignored) {
-            // default implementation ignored
+        if (opName == null) {
             return false;
         }
+        // 只要不是找不到这个字段，就证明有这个字段，返回 true
+        return getOpFieldValue(opName) != OP_FIELD_VALUE_NOT_FOUND;
     }
 }
\ No newline at end of file
@@ -86,7 +86,7 @@ public abstract class DangerousPermission extends BasePermission {
             return false;
         }
         // 判断用户是否勾选了不再询问选项的前提条件
-        // 1. 必须是本次运行状态已经申请过的权限
+        // 1. 必须是已经申请过的权限（已申请过的权限会持久化到磁盘上面，进程重启之后仍然有效）
         // 2. 必须是未授权的权限
         // 通过以上两个条件就可以判断用户在拒绝的时候是否勾选了《不再询问》的选项，你可能会说为什么要写得那么麻烦？
         // 这是因为 Google 把 shouldShowRequestPermissionRationale 设计得很坑，用户在没有勾选《不再询问》的选项情况下，
@@ -94,13 +94,19 @@ public abstract class DangerousPermission extends BasePermission {
         // 这是 Google 压根不想让你知道用户是不是勾选了《不再询问》的选项，你只能在本次运行状态申请过这个权限才能知道，否则没有其他方法。
         // 目前框架针对这个问题进行了一些优化，主要针对在同时申请了前台权限和后台权限的场景，用户在明确拒绝了前台权限的条件下，
         // 与之对应的后台权限框架并没有继续去申请（因为申请了必然失败），就会导致 shouldShowRequestPermissionRationale 判断出现不准的问题。
-        // 但是这样做仍然是有瑕疵的，就是应用本次运行状态如果没有申请过这个权限，直接用 shouldShowRequestPermissionRationale 判断是有问题的，
-        // 只有在应用本次运行状态申请过一次这个权限才能用 shouldShowRequestPermissionRationale 准确判断用户是否勾选了《不再询问》的选项。
+        // 但是这样做仍然是有瑕疵的，就是应用如果没有申请过这个权限，直接用 shouldShowRequestPermissionRationale 判断是有问题的，
+        // 只有在应用申请过一次这个权限才能用 shouldShowRequestPermissionRationale 准确判断用户是否勾选了《不再询问》的选项，
+        // 所以框架会将申请过的权限记录持久化到磁盘上面，这样就算进程被杀死重启了，也不需要再申请一次才能判断。
         // 你可能会说：为什么不永久存储 shouldShowRequestPermissionRationale 状态到磁盘上面？这样不是比你这种做法更加 very good？
         // 这个问题其实别人已经提过了，这里就不再重复解答了，传送地址：https://github.com/getActivity/XXPermissions/issues/154，
         // 目前这套处理方案是目前能想到的最佳解决方案了，如果你还有更好的做法，欢迎通过 issue 告诉我，我会持续跟进并优化这个问题。
-        return AlreadyRequestPermissionsManager.isAlreadyRequestPermissions(this) &&
-            !checkSelfPermission(activity, getPermissionName()) &&
+        if (checkSelfPermission(activity, getPermissionName())) {
+            // 权限已经授予了，就把申请过的记录清除掉，因为《仅限这一次》的授权过期或者权限被系统自动撤销之后，
+            // 权限会回到没有申请过的状态，如果不清除记录，就会被误判成用户勾选了《不再询问》的选项
+            AlreadyRequestPermissionsManager.removeAlreadyRequestPermission(activity, this);
+            return false;
+        }
+        return AlreadyRequestPermissionsManager.isAlreadyRequestPermissions(activity, this) &&
             !shouldShowRequestPermissionRationale(activity, getPermissionName());
     }
 
@@ -167,10 +167,10 @@ public final class AccessBackgroundLocationPermission extends DangerousPermissio
         // ACCESS_FINE_LOCATION must be requested with ACCESS_COARSE_LOCATION
         // 官方适配文档：https://developer.android.google.cn/develop/sensors-and-location/location/permissions/runtime?hl=zh-cn#approximate-request
         if (PermissionVersion.getTargetVersion(activity) >= PermissionVersion.ANDROID_12) {
-            checkPermissionRegistrationStatus(permissionManifestInfoList, PermissionNames.ACCESS_COARSE_LOCATION);
-            checkPermissionRegistrationStatus(permissionManifestInfoList, PermissionNames.ACCESS_FINE_LOCATION);
+            checkPermissionRegistrationStatus(androidManifestInfo, PermissionNames.ACCESS_COARSE_LOCATION);
+            checkPermissionRegistrationStatus(androidManifestInfo, PermissionNames.ACCESS_FINE_LOCATION);
         } else {
-            checkPermissionRegistrationStatus(permissionManifestInfoList, PermissionNames.ACCESS_FINE_LOCATION);
+            checkPermissionRegistrationStatus(androidManifestInfo, PermissionNames.ACCESS_FINE_LOCATION);
         }
     }
 
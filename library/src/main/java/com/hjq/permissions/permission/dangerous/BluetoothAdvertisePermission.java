@@ -82,7 +82,7 @@ public final class BluetoothAdvertisePermission extends DangerousPermission {
             currentPermissionManifestInfo);
         // 如果权限出现的版本小于 minSdkVersion，则证明该权限可能会在旧系统上面申请，需要在 AndroidManifest.xml 文件注册一下旧版权限
         if (getFromAndroidVersion() > getMinSdkVersion(activity, androidManifestInfo)) {
-            checkPermissionRegistrationStatus(permissionManifestInfoList, Manifest.permission.BLUETOOTH_ADMIN, PermissionVersion.ANDROID_11);
+            checkPermissionRegistrationStatus(androidManifestInfo, Manifest.permission.BLUETOOTH_ADMIN, PermissionVersion.ANDROID_11);
         }
     }
 }
\ No newline at end of file
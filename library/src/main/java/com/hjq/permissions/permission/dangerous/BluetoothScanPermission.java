@@ -102,9 +102,9 @@ public final class BluetoothScanPermission extends DangerousPermission {
             currentPermissionManifestInfo);
         // 如果权限出现的版本小于 minSdkVersion，则证明该权限可能会在旧系统上面申请，需要在 AndroidManifest.xml 文件注册一下旧版权限
         if (getFromAndroidVersion() > getMinSdkVersion(activity, androidManifestInfo)) {
-            checkPermissionRegistrationStatus(permissionManifestInfoList, Manifest.permission.BLUETOOTH_ADMIN, PermissionVersion.ANDROID_11);
+            checkPermissionRegistrationStatus(androidManifestInfo, Manifest.permission.BLUETOOTH_ADMIN, PermissionVersion.ANDROID_11);
             // 这是 Android 12 之前遗留的问题，获取扫描蓝牙的结果需要精确定位权限
-            checkPermissionRegistrationStatus(permissionManifestInfoList, PermissionNames.ACCESS_FINE_LOCATION, PermissionVersion.ANDROID_11);
+            checkPermissionRegistrationStatus(androidManifestInfo, PermissionNames.ACCESS_FINE_LOCATION, PermissionVersion.ANDROID_11);
         }
 
         // 如果请求的权限已经包含了精确定位权限，就跳过检查
@@ -133,7 +133,7 @@ public final class BodySensorsBackgroundPermission extends DangerousPermission {
         super.checkSelfByManifestFile(activity, requestPermissions, androidManifestInfo, permissionManifestInfoList,
             currentPermissionManifestInfo);
         // 申请后台的传感器权限必须要先注册前台的传感器权限
-        checkPermissionRegistrationStatus(permissionManifestInfoList, PermissionNames.BODY_SENSORS);
+        checkPermissionRegistrationStatus(androidManifestInfo, PermissionNames.BODY_SENSORS);
     }
 
     @Override
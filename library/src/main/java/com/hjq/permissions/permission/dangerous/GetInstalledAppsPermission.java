@@ -183,7 +183,7 @@ public final class GetInstalledAppsPermission extends DangerousPermission {
             queryAllPackagesPermissionName = "android.permission.QUERY_ALL_PACKAGES";
         }
 
-        PermissionManifestInfo permissionManifestInfo = findPermissionInfoByList(permissionManifestInfoList, queryAllPackagesPermissionName);
+        PermissionManifestInfo permissionManifestInfo = findPermissionInfoByManifest(androidManifestInfo, queryAllPackagesPermissionName);
         if (permissionManifestInfo != null || !androidManifestInfo.queriesPackageList.isEmpty()) {
             return;
         }
@@ -93,7 +93,7 @@ public final class NearbyWifiDevicesPermission extends DangerousPermission {
             currentPermissionManifestInfo);
         // 如果权限出现的版本小于 minSdkVersion，则证明该权限可能会在旧系统上面申请，需要在 AndroidManifest.xml 文件注册一下旧版权限
         if (getFromAndroidVersion() > getMinSdkVersion(activity, androidManifestInfo)) {
-            checkPermissionRegistrationStatus(permissionManifestInfoList, PermissionNames.ACCESS_FINE_LOCATION, PermissionVersion.ANDROID_12_L);
+            checkPermissionRegistrationStatus(androidManifestInfo, PermissionNames.ACCESS_FINE_LOCATION, PermissionVersion.ANDROID_12_L);
         }
 
         // 如果请求的权限已经包含了精确定位权限，就跳过检查
@@ -92,7 +92,7 @@ public final class ReadPhoneNumbersPermission extends DangerousPermission {
             currentPermissionManifestInfo);
         // 如果权限出现的版本小于 minSdkVersion，则证明该权限可能会在旧系统上面申请，需要在 AndroidManifest.xml 文件注册一下旧版权限
         if (getFromAndroidVersion() > getMinSdkVersion(activity, androidManifestInfo)) {
-            checkPermissionRegistrationStatus(permissionManifestInfoList, PermissionNames.READ_PHONE_STATE, PermissionVersion.ANDROID_7_1);
+            checkPermissionRegistrationStatus(androidManifestInfo, PermissionNames.READ_PHONE_STATE, PermissionVersion.ANDROID_7_1);
         }
     }
 }
\ No newline at end of file
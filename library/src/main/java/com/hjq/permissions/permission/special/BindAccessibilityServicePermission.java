@@ -18,6 +18,7 @@ import com.hjq.permissions.permission.base.IPermission;
 import com.hjq.permissions.permission.common.SpecialPermission;
 import com.hjq.permissions.tools.PermissionVersion;
 import com.hjq.permissions.tools.PermissionUtils;
+import com.hjq.permissions.tools.SecureSettingsComponentIndex;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -80,32 +81,16 @@ public final class BindAccessibilityServicePermission extends SpecialPermission
 
     @Override
     public boolean isGrantedPermission(@NonNull Context context, boolean skipRequest) {
-        final String enabledNotificationListeners = Settings.Secure.getString(context.getContentResolver(), Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES);
-        if (TextUtils.isEmpty(enabledNotificationListeners)) {
-            return false;
-        }
-
         String serviceClassName = PermissionUtils.isClassExist(mAccessibilityServiceClassName) ? mAccessibilityServiceClassName : null;
+        // 设置项的解析结果会被缓存起来，只有设置项发生变化之后才会重新解析
         // hello.litiaotiao.app/hello.litiaotiao.app.LttService:com.hjq.permissions.demo/com.hjq.permissions.demo.DemoAccessibilityService
-        final String[] allComponentNameArray = enabledNotificationListeners.split(":");
-        for (String component : allComponentNameArray) {
-            ComponentName componentName = ComponentName.unflattenFromString(component);
-            if (componentName == null) {
-                continue;
-            }
-            if (serviceClassName != null) {
-                // 精准匹配
-                if (serviceClassName.equals(componentName.getClassName())) {
-                    return true;
-                }
-            } else {
-                // 模糊匹配
-                if (context.getPackageName().equals(componentName.getPackageName())) {
-                    return true;
-                }
-            }
+        if (serviceClassName != null) {
+            // 精准匹配
+            return SecureSettingsComponentIndex.containsComponent(context, SecureSettingsComponentIndex.SETTING_ENABLED_ACCESSIBILITY_SERVICES,
+                new ComponentName(context, serviceClassName));
         }
-        return false;
+        // 模糊匹配
+        return SecureSettingsComponentIndex.containsPackageName(context, SecureSettingsComponentIndex.SETTING_ENABLED_ACCESSIBILITY_SERVICES, context.getPackageName());
     }
 
     @NonNull
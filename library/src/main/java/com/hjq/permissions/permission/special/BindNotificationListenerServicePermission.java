@@ -20,6 +20,7 @@ import com.hjq.permissions.permission.base.IPermission;
 import com.hjq.permissions.permission.common.SpecialPermission;
 import com.hjq.permissions.tools.PermissionVersion;
 import com.hjq.permissions.tools.PermissionUtils;
+import com.hjq.permissions.tools.SecureSettingsComponentIndex;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -47,9 +48,6 @@ public final class BindNotificationListenerServicePermission extends SpecialPerm
         }
     };
 
-    /** Settings.Secure.ENABLED_NOTIFICATION_LISTENERS */
-    private static final String SETTING_ENABLED_NOTIFICATION_LISTENERS = "enabled_notification_listeners";
-
     /** 通知监听器的 Service 类名 */
     @NonNull
     private final String mNotificationListenerServiceClassName;
@@ -101,30 +99,15 @@ public final class BindNotificationListenerServicePermission extends SpecialPerm
         if (PermissionVersion.isAndroid8_1() && notificationManager != null && serviceClassName != null) {
             return notificationManager.isNotificationListenerAccessGranted(new ComponentName(context, serviceClassName));
         }
-        final String enabledNotificationListeners = Settings.Secure.getString(context.getContentResolver(), SETTING_ENABLED_NOTIFICATION_LISTENERS);
-        if (TextUtils.isEmpty(enabledNotificationListeners)) {
-            return false;
-        }
+        // 设置项的解析结果会被缓存起来，只有设置项发生变化之后才会重新解析
         // com.hjq.permissions.demo/com.hjq.permissions.demo.NotificationMonitorService:com.huawei.health/com.huawei.bone.ui.setting.NotificationPushListener
-        final String[] allComponentNameArray = enabledNotificationListeners.split(":");
-        for (String component : allComponentNameArray) {
-            ComponentName componentName = ComponentName.unflattenFromString(component);
-            if (componentName == null) {
-                continue;
-            }
-            if (serviceClassName != null) {
-                // 精准匹配
-                if (serviceClassName.equals(componentName.getClassName())) {
-                    return true;
-                }
-            } else {
-                // 模糊匹配
-                if (context.getPackageName().equals(componentName.getPackageName())) {
-                    return true;
-                }
-            }
+        if (serviceClassName != null) {
+            // 精准匹配
+            return SecureSettingsComponentIndex.containsComponent(context, SecureSettingsComponentIndex.SETTING_ENABLED_NOTIFICATION_LISTENERS,
+                new ComponentName(context, serviceClassName));
         }
-        return false;
+        // 模糊匹配
+        return SecureSettingsComponentIndex.containsPackageName(context, SecureSettingsComponentIndex.SETTING_ENABLED_NOTIFICATION_LISTENERS, context.getPackageName());
     }
 
     @NonNull
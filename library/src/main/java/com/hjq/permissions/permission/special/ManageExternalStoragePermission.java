@@ -125,8 +125,8 @@ public final class ManageExternalStoragePermission extends SpecialPermission {
             currentPermissionManifestInfo);
         // 如果权限出现的版本小于 minSdkVersion，则证明该权限可能会在旧系统上面申请，需要在 AndroidManifest.xml 文件注册一下旧版权限
         if (getFromAndroidVersion() > getMinSdkVersion(activity, androidManifestInfo)) {
-            checkPermissionRegistrationStatus(permissionManifestInfoList, PermissionNames.READ_EXTERNAL_STORAGE, PermissionVersion.ANDROID_10);
-            checkPermissionRegistrationStatus(permissionManifestInfoList, PermissionNames.WRITE_EXTERNAL_STORAGE, PermissionVersion.ANDROID_10);
+            checkPermissionRegistrationStatus(androidManifestInfo, PermissionNames.READ_EXTERNAL_STORAGE, PermissionVersion.ANDROID_10);
+            checkPermissionRegistrationStatus(androidManifestInfo, PermissionNames.WRITE_EXTERNAL_STORAGE, PermissionVersion.ANDROID_10);
         }
 
         // 如果申请的是 Android 10 获取媒体位置权限，则绕过本次检查
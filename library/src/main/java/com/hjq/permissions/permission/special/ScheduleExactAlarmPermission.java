@@ -128,15 +128,15 @@ public final class ScheduleExactAlarmPermission extends SpecialPermission {
         }
 
         if (PermissionVersion.getTargetVersion(activity) >= PermissionVersion.ANDROID_13 &&
-            findPermissionInfoByList(permissionManifestInfoList, useExactAlarmPermissionName) != null) {
+            findPermissionInfoByManifest(androidManifestInfo, useExactAlarmPermissionName) != null) {
             // 如果当前项目适配了 Android 13 的话，并且在清单文件中注册了 USE_EXACT_ALARM 权限，那么 SCHEDULE_EXACT_ALARM 权限在清单文件中可以这样注册
             // <uses-permission android:name="android.permission.SCHEDULE_EXACT_ALARM" android:maxSdkVersion="32" />
             // 相关文档地址：https://developer.android.google.cn/reference/android/Manifest.permission#USE_EXACT_ALARM
             // 如果你的应用要上架 GooglePlay，那么需要慎重添加 USE_EXACT_ALARM 权限，因为不是日历、闹钟、时钟这类应用添加 USE_EXACT_ALARM 权限很难通过 GooglePlay 上架审核
-            checkPermissionRegistrationStatus(permissionManifestInfoList, getPermissionName(), PermissionVersion.ANDROID_12_L);
+            checkPermissionRegistrationStatus(androidManifestInfo, getPermissionName(), PermissionVersion.ANDROID_12_L);
             return;
         }
 
-        checkPermissionRegistrationStatus(permissionManifestInfoList, getPermissionName());
+        checkPermissionRegistrationStatus(androidManifestInfo, getPermissionName());
     }
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package com.hjq.permissions.tools;
+
+import android.content.BroadcastReceiver;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageManager;
+import android.content.pm.PackageManager.ResolveInfoFlags;
+import android.content.pm.ResolveInfo;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/25
+ *    desc   : 意图解析结果缓存类
+ *
+ *             判断一个意图的 Activity 是否存在，需要调用 PackageManager.queryIntentActivities 方法，这是一个跨进程调用，
+ *             而跳转权限设置页之前，每个候选的意图都需要判断一次，所以这里将解析的结果缓存起来，
+ *             当有应用安装、卸载、更新的时候，再将和这个应用相关的缓存清除掉
+ */
+public final class ActivityIntentCache {
+
+    /** 意图解析结果缓存集合 */
+    private static final ConcurrentMap<String, ResolveResult> RESOLVE_RESULT_CACHE_MAP = new ConcurrentHashMap<>();
+
+    /** 缓存失效的次数（每次有应用变化都会加一，用于判断解析的过程中有没有应用发生过变化） */
+    private static final AtomicInteger INVALIDATION_GENERATION = new AtomicInteger();
+
+    /** 应用变化广播接收器是否注册过 */
+    private static volatile boolean sPackageReceiverRegistered;
+
+    /** 私有化构造函数 */
+    private ActivityIntentCache() {}
+
+    /**
+     * 判断这个意图的 Activity 是否存在（解析的结果会被缓存）
+     */
+    public static boolean areActivityIntent(@NonNull Context context, @NonNull Intent intent) {
+        String cacheKey = getCacheKey(intent);
+        ResolveResult resolveResult = RESOLVE_RESULT_CACHE_MAP.get(cacheKey);
+        if (resolveResult != null) {
+            return resolveResult.resolved;
+        }
+        // 这里为什么不用 Intent.resolveActivity(intent) != null 来判断呢？
+        // 这是因为在 OPPO R7 Plus （Android 5.0）会出现误判，明明没有这个 Activity，却返回了 ComponentName 对象
+        PackageManager packageManager = context.getPackageManager();
+        if (packageManager == null) {
+            return false;
+        }
+        // 需要先注册广播再查询，否则在这中间发生的应用变化就感知不到了
+        boolean registered = registerPackageReceiver(context);
+        int startGeneration = INVALIDATION_GENERATION.get();
+        List<ResolveInfo> resolveInfoList;
+        if (PermissionVersion.isAndroid13()) {
+            resolveInfoList = packageManager.queryIntentActivities(intent, ResolveInfoFlags.of(PackageManager.MATCH_DEFAULT_ONLY));
+        } else {
+            resolveInfoList = packageManager.queryIntentActivities(intent, PackageManager.MATCH_DEFAULT_ONLY);
+        }
+        resolveResult = new ResolveResult(intent, resolveInfoList);
+        // 如果广播注册失败了，就不能缓存解析的结果，否则应用发生变化之后就没有办法更新了
+        if (!registered) {
+            return resolveResult.resolved;
+        }
+        // 先放入缓存再检查失效次数：如果在查询的过程中有应用发生了变化，那么查询到的可能是旧的结果，
+        // 这个时候需要把刚刚放入的缓存移除掉（只移除自己放入的那个），而放入之后发生的变化会由广播接收器负责移除
+        RESOLVE_RESULT_CACHE_MAP.put(cacheKey, resolveResult);
+        if (INVALIDATION_GENERATION.get() != startGeneration) {
+            RESOLVE_RESULT_CACHE_MAP.remove(cacheKey, resolveResult);
+        }
+        return resolveResult.resolved;
+    }
+
+    /**
+     * 预解析一批权限的设置页意图（建议在子线程中调用）
+     */
+    public static void preloadPermissionIntents(@NonNull Context context, @NonNull List<IPermission> permissions) {
+        for (IPermission permission : permissions) {
+            try {
+                List<Intent> intents = permission.getPermissionSettingIntents(context);
+                for (Intent intent : intents) {
+                    areActivityIntent(context, intent);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 清除和某个应用相关的缓存
+     */
+    private static void invalidatePackage(@Nullable String packageName) {
+        INVALIDATION_GENERATION.incrementAndGet();
+        if (packageName == null) {
+            RESOLVE_RESULT_CACHE_MAP.clear();
+            return;
+        }
+        Iterator<ResolveResult> iterator = RESOLVE_RESULT_CACHE_MAP.values().iterator();
+        while (iterator.hasNext()) {
+            ResolveResult resolveResult = iterator.next();
+            // 之前没有解析到的意图，可能会因为这个应用的安装而可以解析到，所以也需要清除掉
+            if (!resolveResult.resolved || resolveResult.isRelatedPackage(packageName)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 注册应用变化的广播接收器（只会注册一次）
+     *
+     * @return              广播接收器是否注册成功
+     */
+    private static boolean registerPackageReceiver(@NonNull Context context) {
+        if (sPackageReceiverRegistered) {
+            return true;
+        }
+        synchronized (ActivityIntentCache.class) {
+            if (sPackageReceiverRegistered) {
+                return true;
+            }
+            Context applicationContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+            IntentFilter intentFilter = new IntentFilter();
+            intentFilter.addAction(Intent.ACTION_PACKAGE_ADDED);
+            intentFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+            intentFilter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+            intentFilter.addDataScheme("package");
+            try {
+                applicationContext.registerReceiver(new PackageChangedReceiver(), intentFilter);
+            } catch (Exception e) {
+                // 注册失败的话，就没有办法感知应用变化，只能将缓存清空，下次再重新注册
+                e.printStackTrace();
+                RESOLVE_RESULT_CACHE_MAP.clear();
+                return false;
+            }
+            sPackageReceiverRegistered = true;
+            return true;
+        }
+    }
+
+    /**
+     * 获取意图的缓存 key（由意图的 action、组件名、包名、data scheme、mimeType、category 组成）
+     */
+    @NonNull
+    private static String getCacheKey(@NonNull Intent intent) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(intent.getAction());
+        builder.append('|');
+        ComponentName componentName = intent.getComponent();
+        if (componentName != null) {
+            builder.append(componentName.flattenToShortString());
+        }
+        builder.append('|');
+        builder.append(intent.getPackage());
+        builder.append('|');
+        builder.append(intent.getScheme());
+        builder.append('|');
+        builder.append(intent.getType());
+        Set<String> categories = intent.getCategories();
+        if (categories != null) {
+            for (String category : categories) {
+                builder.append('|');
+                builder.append(category);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 意图解析结果
+     */
+    private static final class ResolveResult {
+
+        /** 是否解析到了 Activity */
+        final boolean resolved;
+
+        /** 和这个意图相关的应用包名（意图中指定的包名和解析到的 Activity 所在的包名） */
+        @NonNull
+        final String[] relatedPackageNames;
+
+        ResolveResult(@NonNull Intent intent, @Nullable List<ResolveInfo> resolveInfoList) {
+            resolved = resolveInfoList != null && !resolveInfoList.isEmpty();
+            int resolveInfoCount = resolveInfoList != null ? resolveInfoList.size() : 0;
+            relatedPackageNames = new String[resolveInfoCount + 2];
+            ComponentName componentName = intent.getComponent();
+            relatedPackageNames[0] = componentName != null ? componentName.getPackageName() : null;
+            relatedPackageNames[1] = intent.getPackage();
+            for (int i = 0; i < resolveInfoCount; i++) {
+                ResolveInfo resolveInfo = resolveInfoList.get(i);
+                relatedPackageNames[i + 2] = resolveInfo.activityInfo != null ? resolveInfo.activityInfo.packageName : null;
+            }
+        }
+
+        boolean isRelatedPackage(@NonNull String packageName) {
+            for (String relatedPackageName : relatedPackageNames) {
+                if (packageName.equals(relatedPackageName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 应用变化广播接收器
+     */
+    private static final class PackageChangedReceiver extends BroadcastReceiver {
+
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            Uri data = intent.getData();
+            invalidatePackage(data != null ? data.getSchemeSpecificPart() : null);
+        }
+    }
+}
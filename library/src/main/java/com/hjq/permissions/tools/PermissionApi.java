@@ -153,6 +153,8 @@ public final class PermissionApi {
      * 根据新权限添加旧权限
      */
     public static synchronized void addOldPermissionsByNewPermissions(@NonNull Context context, @NonNull List<IPermission> requestPermissions) {
+        // 请求列表中已有的权限集合（用位图集合来判断是否包含，避免在循环中再遍历一遍列表）
+        PermissionSet requestPermissionSet = null;
         // 这里需要将 index 设置成 -1，这样走到下面循环的时候，++i 第一次循环 index 就是 0 了
         int index = -1;
         // ++index 是前置递增（先将 index 的值加 1，再返回增加后的值）
@@ -168,9 +170,12 @@ public final class PermissionApi {
             if (oldPermissions == null || oldPermissions.isEmpty()) {
                 continue;
             }
+            if (requestPermissionSet == null) {
+                requestPermissionSet = new PermissionSet(requestPermissions);
+            }
             for (IPermission oldPermission : oldPermissions) {
                 // 如果请求列表已经包含此权限，就不重复添加，直接跳过
-                if (PermissionUtils.containsPermission(requestPermissions, oldPermission)) {
+                if (!requestPermissionSet.add(oldPermission)) {
                     continue;
                 }
                 // index + 1 是将旧版本的权限添加到新版本的权限后面，这样才能确保不打乱申请的传入顺序
@@ -191,24 +196,6 @@ public final class PermissionApi {
         return true;
     }
 
-    /**
-     * 通过权限集合获取最大的间隔时间
-     */
-    public static int getMaxIntervalTimeByPermissions(@NonNull Context context, @Nullable List<IPermission> permissions) {
-        if (permissions == null) {
-            return 0;
-        }
-        int maxWaitTime = 0;
-        for (IPermission permission : permissions) {
-            int time = permission.getRequestIntervalTime(context);
-            if (time == 0) {
-                continue;
-            }
-            maxWaitTime = Math.max(maxWaitTime, time);
-        }
-        return maxWaitTime;
-    }
-
     /**
      * 通过权限集合获取最大的回调等待时间
      */
@@ -10,7 +10,10 @@ import com.hjq.permissions.permission.base.IPermission;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *    author : Android 轮子哥
@@ -20,6 +23,31 @@ import java.util.List;
  */
 public final class PermissionChecker {
 
+    /**
+     * 已经检查过序列化实现的权限类集合
+     *
+     * 序列化实现是否有问题只和权限类本身有关系，和申请的内容无关，所以同一个类只需要检查一次，
+     * 这样就不用每次申请权限都走一遍反射获取 CREATOR 字段和泛型类型的流程
+     */
+    private static final Set<Class<?>> PARCELABLE_CHECKED_CLASSES = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /** 合规检查通过的权限列表的最大缓存数量（防止调用方每次都传入不同的权限列表导致集合无限增长） */
+    private static final int COMPLIANCE_PASSED_KEY_MAX_COUNT = 128;
+
+    /**
+     * 合规检查通过的权限列表集合
+     *
+     * 合规检查的结果只和权限列表、清单文件、targetSdkVersion、系统版本有关系，而后面两个在进程的生命周期内是不会变化的，
+     * 所以同一个权限列表只要检查通过了一次，后面再申请的时候就不需要再检查了，检查不通过的会直接抛出异常，所以不需要记录
+     *
+     * 清单文件信息对象是有可能会发生变化的（例如清单文件的缓存失效之后重新解析出来的是一个新的对象），所以清单文件信息对象变了之后，之前的结果需要全部作废
+     */
+    private static final Set<ComplianceKey> COMPLIANCE_PASSED_KEYS = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /** 上一次合规检查所用的清单文件信息对象 */
+    @Nullable
+    private static volatile AndroidManifestInfo sLastAndroidManifestInfo;
+
     /**
      * 检查 Activity 的状态是否正常
      */
@@ -89,12 +117,28 @@ public final class PermissionChecker {
             throw new IllegalArgumentException("The requested permission cannot be empty");
         }
 
+        // 清单文件信息对象发生了变化，之前检查通过的结果就不能再用了
+        if (androidManifestInfo != sLastAndroidManifestInfo) {
+            sLastAndroidManifestInfo = androidManifestInfo;
+            COMPLIANCE_PASSED_KEYS.clear();
+        }
+
+        ComplianceKey complianceKey = new ComplianceKey(requestPermissions, androidManifestInfo);
+        if (COMPLIANCE_PASSED_KEYS.contains(complianceKey)) {
+            return;
+        }
+
         for (IPermission permission : requestPermissions) {
             // 检查权限序列化实现是否有问题
             checkPermissionParcelable(permission);
             // 让权限自己检查一下自己
             permission.checkCompliance(activity, requestPermissions, androidManifestInfo);
         }
+
+        if (COMPLIANCE_PASSED_KEYS.size() >= COMPLIANCE_PASSED_KEY_MAX_COUNT) {
+            COMPLIANCE_PASSED_KEYS.clear();
+        }
+        COMPLIANCE_PASSED_KEYS.add(complianceKey);
     }
 
     /**
@@ -102,6 +146,9 @@ public final class PermissionChecker {
      */
     public static void checkPermissionParcelable(@NonNull IPermission permission) {
         Class<? extends IPermission> clazz = permission.getClass();
+        if (PARCELABLE_CHECKED_CLASSES.contains(clazz)) {
+            return;
+        }
         String className = clazz.getName();
 
         // 获取 CREATOR 字段
@@ -170,5 +217,65 @@ public final class PermissionChecker {
             throw new IllegalArgumentException("The newArray method of the CREATOR field in this " + className +
                 " returns an empty value. This method cannot return an empty value");
         }
+
+        // 走到这里证明这个权限类的序列化实现没有问题，记录下来，下次就不用再检查了
+        PARCELABLE_CHECKED_CLASSES.add(clazz);
+    }
+
+    /**
+     * 合规检查结果的缓存 key（和权限的顺序有关）
+     *
+     * 这里解释一下为什么权限对象是按照引用来比较的，而不是用权限对象的 equals 方法：
+     * 有些权限是携带了参数的（例如通知栏监听权限携带了 Service 类），而这些参数也会影响到合规检查的结果，
+     * 但是权限对象的 equals 方法只比较了权限名称，而无参的权限对象都是单例（详见 PermissionLists），按照引用来比较同样可以命中缓存，
+     * 带参数的权限对象虽然每次都是新创建的，命中不了缓存，但是也不会出现把参数不同的权限误判成检查通过的问题
+     */
+    private static final class ComplianceKey {
+
+        /** 申请的权限 */
+        @NonNull
+        private final IPermission[] mPermissions;
+
+        /** 清单文件信息（为空的时候不会检查清单文件，所以也要作为 key 的一部分） */
+        @Nullable
+        private final AndroidManifestInfo mAndroidManifestInfo;
+
+        private final int mHashCode;
+
+        private ComplianceKey(@NonNull List<IPermission> permissions, @Nullable AndroidManifestInfo androidManifestInfo) {
+            mPermissions = permissions.toArray(new IPermission[0]);
+            mAndroidManifestInfo = androidManifestInfo;
+            int hashCode = System.identityHashCode(androidManifestInfo);
+            for (IPermission permission : mPermissions) {
+                hashCode = 31 * hashCode + System.identityHashCode(permission);
+            }
+            mHashCode = hashCode;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ComplianceKey)) {
+                return false;
+            }
+            ComplianceKey other = (ComplianceKey) obj;
+            if (mHashCode != other.mHashCode || mAndroidManifestInfo != other.mAndroidManifestInfo ||
+                mPermissions.length != other.mPermissions.length) {
+                return false;
+            }
+            for (int i = 0; i < mPermissions.length; i++) {
+                if (mPermissions[i] != other.mPermissions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.hjq.permissions.tools;
+
+import android.os.SystemClock;
+import android.os.Trace;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.hjq.permissions.OnPermissionMetricsListener;
+import com.hjq.permissions.PermissionRequestPhase;
+import com.hjq.permissions.XXPermissions;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/26
+ *    desc   : 权限请求流程耗时统计类
+ *
+ *             在没有设置耗时监听器并且没有开启 systrace 的情况下，{@link #beginPhase} 会直接返回 null，不会创建任何对象
+ */
+public final class PermissionMetrics {
+
+    /** Trace 片段名称的前缀 */
+    private static final String TRACE_SECTION_PREFIX = "XXPermissions#";
+
+    /** Trace 异步片段的 cookie 生成器（同名的异步片段需要用不同的 cookie 区分） */
+    private static final AtomicInteger TRACE_COOKIE_GENERATOR = new AtomicInteger();
+
+    /** 私有化构造函数 */
+    private PermissionMetrics() {}
+
+    /**
+     * 某个阶段开始
+     *
+     * @return              如果不需要统计则返回 null，需要将返回值传给 {@link #endPhase(PhaseSpan)}
+     */
+    @Nullable
+    public static PhaseSpan beginPhase(@NonNull PermissionRequestPhase phase, @Nullable List<IPermission> permissions) {
+        OnPermissionMetricsListener listener = XXPermissions.getPermissionMetricsListener();
+        boolean traceEnabled = isTraceEnabled();
+        if (listener == null && !traceEnabled) {
+            return null;
+        }
+        if (permissions == null) {
+            permissions = Collections.emptyList();
+        }
+        int traceCookie = 0;
+        if (traceEnabled) {
+            traceCookie = TRACE_COOKIE_GENERATOR.incrementAndGet();
+            // 这里用异步片段而不是 Trace.beginSection，因为大部分阶段的开始和结束都不在同一个调用栈中
+            Trace.beginAsyncSection(TRACE_SECTION_PREFIX + phase.name(), traceCookie);
+        }
+        if (listener != null) {
+            listener.onPhaseStart(phase, permissions);
+        }
+        return new PhaseSpan(phase, permissions, listener, traceCookie, SystemClock.elapsedRealtimeNanos());
+    }
+
+    /**
+     * 某个阶段结束
+     */
+    public static void endPhase(@Nullable PhaseSpan span) {
+        if (span == null || span.mEnded) {
+            return;
+        }
+        span.mEnded = true;
+        long durationNanos = SystemClock.elapsedRealtimeNanos() - span.mStartNanos;
+        if (span.mTraceCookie != 0 && PermissionVersion.isAndroid10()) {
+            Trace.endAsyncSection(TRACE_SECTION_PREFIX + span.mPhase.name(), span.mTraceCookie);
+        }
+        if (span.mListener != null) {
+            span.mListener.onPhaseEnd(span.mPhase, span.mPermissions, durationNanos);
+        }
+    }
+
+    /**
+     * 某个权限的申请结果已经稳定
+     */
+    public static void reportResultSettled(@NonNull IPermission permission, boolean granted, long settleMillis) {
+        OnPermissionMetricsListener listener = XXPermissions.getPermissionMetricsListener();
+        if (listener == null) {
+            return;
+        }
+        listener.onPermissionResultSettled(permission, granted, settleMillis);
+    }
+
+    /**
+     * 当前是否开启了 systrace（异步片段需要 Android 10 及以上才支持）
+     */
+    private static boolean isTraceEnabled() {
+        return PermissionVersion.isAndroid10() && Trace.isEnabled();
+    }
+
+    /**
+     * 阶段片段
+     */
+    public static final class PhaseSpan {
+
+        @NonNull
+        private final PermissionRequestPhase mPhase;
+
+        @NonNull
+        private final List<IPermission> mPermissions;
+
+        @Nullable
+        private final OnPermissionMetricsListener mListener;
+
+        private final int mTraceCookie;
+
+        private final long mStartNanos;
+
+        /** 是否已经结束（避免重复回调结束） */
+        private boolean mEnded;
+
+        private PhaseSpan(@NonNull PermissionRequestPhase phase, @NonNull List<IPermission> permissions,
+                          @Nullable OnPermissionMetricsListener listener, int traceCookie, long startNanos) {
+            mPhase = phase;
+            mPermissions = permissions;
+            mListener = listener;
+            mTraceCookie = traceCookie;
+            mStartNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.hjq.permissions.tools;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.hjq.permissions.permission.PermissionOrdinals;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/23
+ *    desc   : 权限集合（基于位图实现，判断是否包含某个权限的时间复杂度为 O(1)）
+ *
+ *             框架内置的权限按照 {@link PermissionOrdinals} 中的序号存放在位图中，
+ *             自定义的权限没有序号，则退化成用 HashMap 以权限名称作为 key 来存放，
+ *             遍历的方式如下（整个遍历过程不会创建任何对象）：
+ *
+ *             for (int i = set.nextIndex(0); i >= 0; i = set.nextIndex(i + 1)) {
+ *                 IPermission permission = set.valueAt(i);
+ *             }
+ */
+public final class PermissionSet {
+
+    /** 每个 long 能存放的位数 */
+    private static final int BITS_PER_WORD = 64;
+
+    /** 内置权限的位图 */
+    @NonNull
+    private final long[] mWords = new long[(PermissionOrdinals.ORDINAL_COUNT + BITS_PER_WORD - 1) / BITS_PER_WORD];
+
+    /** 内置权限对象（下标为权限的序号） */
+    @NonNull
+    private final IPermission[] mPermissions = new IPermission[PermissionOrdinals.ORDINAL_COUNT];
+
+    /** 内置权限的数量 */
+    private int mPermissionCount;
+
+    /** 自定义权限对象列表（按需创建） */
+    @Nullable
+    private List<IPermission> mCustomPermissions;
+
+    /** 自定义权限名称和其在列表中位置的映射表（按需创建） */
+    @Nullable
+    private Map<String, Integer> mCustomPermissionIndexMap;
+
+    public PermissionSet() {}
+
+    public PermissionSet(@NonNull Collection<IPermission> permissions) {
+        addAll(permissions);
+    }
+
+    /**
+     * 判断集合中是否包含某个权限
+     */
+    public boolean contains(@NonNull IPermission permission) {
+        return contains(permission.getPermissionName());
+    }
+
+    /**
+     * 同上
+     */
+    public boolean contains(@NonNull String permissionName) {
+        int ordinal = PermissionOrdinals.getOrdinal(permissionName);
+        if (ordinal != PermissionOrdinals.INVALID_ORDINAL) {
+            return (mWords[ordinal / BITS_PER_WORD] & (1L << ordinal)) != 0;
+        }
+        return mCustomPermissionIndexMap != null && mCustomPermissionIndexMap.containsKey(permissionName);
+    }
+
+    /**
+     * 添加一个权限
+     *
+     * @return              如果集合中之前没有这个权限则返回 true，反之则返回 false
+     */
+    public boolean add(@NonNull IPermission permission) {
+        String permissionName = permission.getPermissionName();
+        int ordinal = PermissionOrdinals.getOrdinal(permissionName);
+        if (ordinal != PermissionOrdinals.INVALID_ORDINAL) {
+            int wordIndex = ordinal / BITS_PER_WORD;
+            long mask = 1L << ordinal;
+            if ((mWords[wordIndex] & mask) != 0) {
+                return false;
+            }
+            mWords[wordIndex] |= mask;
+            mPermissions[ordinal] = permission;
+            mPermissionCount++;
+            return true;
+        }
+
+        if (mCustomPermissions == null || mCustomPermissionIndexMap == null) {
+            mCustomPermissions = new ArrayList<>();
+            mCustomPermissionIndexMap = new HashMap<>();
+        }
+        if (mCustomPermissionIndexMap.containsKey(permissionName)) {
+            return false;
+        }
+        mCustomPermissionIndexMap.put(permissionName, mCustomPermissions.size());
+        mCustomPermissions.add(permission);
+        return true;
+    }
+
+    /**
+     * 添加多个权限
+     */
+    public void addAll(@NonNull Collection<IPermission> permissions) {
+        for (IPermission permission : permissions) {
+            add(permission);
+        }
+    }
+
+    /**
+     * 移除一个权限
+     *
+     * @return              如果集合中之前有这个权限则返回 true，反之则返回 false
+     */
+    public boolean remove(@NonNull IPermission permission) {
+        return remove(permission.getPermissionName());
+    }
+
+    /**
+     * 同上
+     */
+    public boolean remove(@NonNull String permissionName) {
+        int ordinal = PermissionOrdinals.getOrdinal(permissionName);
+        if (ordinal != PermissionOrdinals.INVALID_ORDINAL) {
+            int wordIndex = ordinal / BITS_PER_WORD;
+            long mask = 1L << ordinal;
+            if ((mWords[wordIndex] & mask) == 0) {
+                return false;
+            }
+            mWords[wordIndex] &= ~mask;
+            mPermissions[ordinal] = null;
+            mPermissionCount--;
+            return true;
+        }
+
+        if (mCustomPermissions == null || mCustomPermissionIndexMap == null) {
+            return false;
+        }
+        Integer index = mCustomPermissionIndexMap.remove(permissionName);
+        if (index == null) {
+            return false;
+        }
+        // 将列表最后一个元素挪到被移除的位置上，这样移除操作的时间复杂度就是 O(1) 了
+        int lastIndex = mCustomPermissions.size() - 1;
+        IPermission lastPermission = mCustomPermissions.remove(lastIndex);
+        if (index != lastIndex) {
+            mCustomPermissions.set(index, lastPermission);
+            mCustomPermissionIndexMap.put(lastPermission.getPermissionName(), index);
+        }
+        return true;
+    }
+
+    /**
+     * 清空集合
+     */
+    public void clear() {
+        for (int i = 0; i < mWords.length; i++) {
+            mWords[i] = 0;
+        }
+        for (int i = 0; i < mPermissions.length; i++) {
+            mPermissions[i] = null;
+        }
+        mPermissionCount = 0;
+        if (mCustomPermissions != null) {
+            mCustomPermissions.clear();
+        }
+        if (mCustomPermissionIndexMap != null) {
+            mCustomPermissionIndexMap.clear();
+        }
+    }
+
+    /**
+     * 获取集合中的权限数量
+     */
+    public int size() {
+        return mPermissionCount + (mCustomPermissions != null ? mCustomPermissions.size() : 0);
+    }
+
+    /**
+     * 判断集合是否为空
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 获取从指定位置开始（包含该位置）的下一个有效位置
+     *
+     * @return              如果后面已经没有权限了，则返回 -1
+     */
+    public int nextIndex(int fromIndex) {
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        }
+        if (fromIndex < PermissionOrdinals.ORDINAL_COUNT) {
+            int wordIndex = fromIndex / BITS_PER_WORD;
+            long word = mWords[wordIndex] & (-1L << fromIndex);
+            while (true) {
+                if (word != 0) {
+                    return wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+                }
+                if (++wordIndex >= mWords.length) {
+                    break;
+                }
+                word = mWords[wordIndex];
+            }
+            fromIndex = PermissionOrdinals.ORDINAL_COUNT;
+        }
+        int customIndex = fromIndex - PermissionOrdinals.ORDINAL_COUNT;
+        if (mCustomPermissions != null && customIndex < mCustomPermissions.size()) {
+            return fromIndex;
+        }
+        return -1;
+    }
+
+    /**
+     * 获取指定位置上的权限（位置需要通过 {@link #nextIndex(int)} 获取）
+     */
+    @NonNull
+    public IPermission valueAt(int index) {
+        if (index < PermissionOrdinals.ORDINAL_COUNT) {
+            IPermission permission = mPermissions[index];
+            if (permission == null) {
+                throw new IndexOutOfBoundsException("There is no permission at index " + index);
+            }
+            return permission;
+        }
+        if (mCustomPermissions == null) {
+            throw new IndexOutOfBoundsException("There is no permission at index " + index);
+        }
+        return mCustomPermissions.get(index - PermissionOrdinals.ORDINAL_COUNT);
+    }
+
+    /**
+     * 将集合转换成 List 对象
+     */
+    @NonNull
+    public List<IPermission> toList() {
+        List<IPermission> list = new ArrayList<>(size());
+        for (int i = nextIndex(0); i >= 0; i = nextIndex(i + 1)) {
+            list.add(valueAt(i));
+        }
+        return list;
+    }
+}
@@ -2,8 +2,12 @@ package com.hjq.permissions.tools;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.os.MessageQueue;
 import android.os.SystemClock;
 import android.support.annotation.NonNull;
+import android.view.Choreographer;
+import com.hjq.permissions.PermissionCompletionStrategy;
+import com.hjq.permissions.XXPermissions;
 
 /**
  *    author : Android 轮子哥
@@ -16,6 +20,9 @@ public final class PermissionTaskHandler {
     /** Handler 对象 */
     private static final Handler HANDLER = new Handler(Looper.getMainLooper());
 
+    /** 兼容模式下收尾任务的延迟时间 */
+    private static final int COMPLETION_TASK_DELAY_MILLIS = 100;
+
     /**
      * 延迟发送一个任务
      */
@@ -41,4 +48,72 @@ public final class PermissionTaskHandler {
         // 移除和当前对象相关的消息回调
         HANDLER.removeCallbacksAndMessages(token);
     }
-}
\ No newline at end of file
+
+    /**
+     * 发送一个收尾任务（按照全局设置的 {@link PermissionCompletionStrategy} 来决定执行时机）
+     */
+    public static void sendCompletionTask(@NonNull Runnable runnable) {
+        PermissionCompletionStrategy strategy = XXPermissions.getPermissionCompletionStrategy();
+        if (strategy == PermissionCompletionStrategy.DELAYED) {
+            sendTask(runnable, COMPLETION_TASK_DELAY_MILLIS);
+            return;
+        }
+        // Choreographer 和 Looper.myQueue 都是和当前线程绑定的，所以如果不在主线程，需要先切换到主线程
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            HANDLER.post(() -> sendCompletionTask(runnable));
+            return;
+        }
+        if (strategy == PermissionCompletionStrategy.IDLE) {
+            // 如果主线程一直在忙（例如在播放动画），IdleHandler 就一直不会被回调，所以还需要加一个兜底的延迟任务
+            IdleCompletionTask idleCompletionTask = new IdleCompletionTask(runnable);
+            Looper.myQueue().addIdleHandler(idleCompletionTask);
+            HANDLER.postDelayed(idleCompletionTask, COMPLETION_TASK_DELAY_MILLIS);
+            return;
+        }
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos -> runnable.run());
+    }
+
+    /**
+     * 在主线程空闲的时候执行的收尾任务（空闲回调和兜底的延迟任务，谁先触发就由谁来执行，并且只会执行一次）
+     */
+    private static final class IdleCompletionTask implements Runnable, MessageQueue.IdleHandler {
+
+        /** 需要执行的任务 */
+        @NonNull
+        private final Runnable mRunnable;
+
+        /** 是否已经执行过（只会在主线程中访问） */
+        private boolean mExecuted;
+
+        private IdleCompletionTask(@NonNull Runnable runnable) {
+            mRunnable = runnable;
+        }
+
+        /**
+         * 兜底的延迟任务触发了
+         */
+        @Override
+        public void run() {
+            if (mExecuted) {
+                return;
+            }
+            mExecuted = true;
+            Looper.myQueue().removeIdleHandler(this);
+            mRunnable.run();
+        }
+
+        /**
+         * 主线程空闲了
+         */
+        @Override
+        public boolean queueIdle() {
+            if (!mExecuted) {
+                mExecuted = true;
+                HANDLER.removeCallbacks(this);
+                mRunnable.run();
+            }
+            // 返回 false 表示执行一次之后就移除
+            return false;
+        }
+    }
+}
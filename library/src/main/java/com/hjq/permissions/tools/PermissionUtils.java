@@ -1,6 +1,5 @@
 package com.hjq.permissions.tools;
 
-import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.app.Fragment;
 import android.content.Context;
@@ -9,24 +8,14 @@ import android.content.Intent;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
-import android.content.pm.PackageManager.ResolveInfoFlags;
 import android.net.Uri;
 import android.os.Bundle;
-import android.os.Environment;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import com.hjq.permissions.permission.base.IPermission;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Properties;
 
 /**
  *    author : Android 轮子哥
@@ -137,17 +126,8 @@ public final class PermissionUtils {
         if (intent == null) {
             return false;
         }
-        // 这里为什么不用 Intent.resolveActivity(intent) != null 来判断呢？
-        // 这是因为在 OPPO R7 Plus （Android 5.0）会出现误判，明明没有这个 Activity，却返回了 ComponentName 对象
-        PackageManager packageManager = context.getPackageManager();
-        if (packageManager == null) {
-            return false;
-        }
-        if (PermissionVersion.isAndroid13()) {
-            return !packageManager.queryIntentActivities(intent,
-                    ResolveInfoFlags.of(PackageManager.MATCH_DEFAULT_ONLY)).isEmpty();
-        }
-        return !packageManager.queryIntentActivities(intent, PackageManager.MATCH_DEFAULT_ONLY).isEmpty();
+        // 意图的解析结果会被缓存起来，避免每次跳转之前都要跨进程查询一遍
+        return ActivityIntentCache.areActivityIntent(context, intent);
     }
 
     /**
@@ -359,81 +339,7 @@ public final class PermissionUtils {
      */
     @NonNull
     public static String getSystemPropertyValue(final String propertyName) {
-        String prop;
-        try {
-            prop = getSystemPropertyByReflect(propertyName);
-            if (prop != null && !prop.isEmpty()) {
-                return prop;
-            }
-        } catch (Exception ignored) {}
-
-        try {
-            prop = getSystemPropertyByShell(propertyName);
-            if (prop != null && !prop.isEmpty()) {
-                return prop;
-            }
-        } catch (IOException ignored) {}
-
-        try {
-            prop = getSystemPropertyByStream(propertyName);
-            if (prop != null && !prop.isEmpty()) {
-                return prop;
-            }
-        } catch (IOException ignored) {}
-
-        return "";
-    }
-
-    /**
-     * 获取系统属性值（通过反射系统类）
-     */
-    @SuppressLint("PrivateApi")
-    private static String getSystemPropertyByReflect(String key) throws ClassNotFoundException, InvocationTargetException,
-                                                                        NoSuchMethodException, IllegalAccessException  {
-        Class<?> clz = Class.forName("android.os.SystemProperties");
-        Method getMethod = clz.getMethod("get", String.class, String.class);
-        return (String) getMethod.invoke(clz, key, "");
-    }
-
-    /**
-     * 获取系统属性值（通过 shell 命令）
-     */
-    private static String getSystemPropertyByShell(final String propName) throws IOException {
-        BufferedReader input = null;
-        try {
-            Process p = Runtime.getRuntime().exec("getprop " + propName);
-            input = new BufferedReader(new InputStreamReader(p.getInputStream()), 1024);
-            String firstLine = input.readLine();
-            if (firstLine != null) {
-                return firstLine;
-            }
-        } finally {
-            if (input != null) {
-                try {
-                    input.close();
-                } catch (IOException ignored) {}
-            }
-        }
-        return null;
-    }
-
-    /**
-     * 获取系统属性值（通过读取系统文件）
-     */
-    private static String getSystemPropertyByStream(final String key) throws IOException {
-        FileInputStream inputStream = null;
-        try {
-            Properties prop = new Properties();
-            File file = new File(Environment.getRootDirectory(), "build.prop");
-            inputStream = new FileInputStream(file);
-            prop.load(inputStream);
-            return prop.getProperty(key, "");
-        } finally {
-            if (inputStream != null) {
-                try {
-                    inputStream.close();
-                } catch (IOException ignored) {}
-            }
-        }
+        // 系统属性在进程的生命周期内是不会变化的，所以这里交给 SystemPropertyStore 去读取并缓存
+        return SystemPropertyStore.getValue(propertyName);
     }
 }
\ No newline at end of file
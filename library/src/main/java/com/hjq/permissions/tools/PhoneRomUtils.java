@@ -2,6 +2,7 @@ package com.hjq.permissions.tools;
 
 import android.annotation.SuppressLint;
 import android.os.Build;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
 import java.lang.reflect.InvocationTargetException;
@@ -63,40 +64,190 @@ public final class PhoneRomUtils {
      */
     private static final String[] VERSION_PROPERTY_MAGIC = {"msc.config.magic.version", "ro.build.version.magic"};
 
+    /** 厂商系统版本号的匹配规则（数字和点号组成的版本号） */
+    private static final Pattern ROM_VERSION_NAME_PATTERN = Pattern.compile("(\\d+(?:\\.\\d+)+)");
+
+    /** 厂商系统信息 */
+    @Nullable
+    private static volatile RomProfile sRomProfile;
+
+    /** 厂商系统相关的属性是否已经预加载过 */
+    private static volatile boolean sRomPropertiesPreloaded;
+
+    /** SystemProperties.getBoolean 方法对象 */
+    @Nullable
+    private static volatile Method sSystemPropertiesGetBooleanMethod;
+
+    /** SystemProperties.getBoolean 方法是否反射过 */
+    private static volatile boolean sSystemPropertiesGetBooleanMethodResolved;
+
     private PhoneRomUtils() {}
 
+    /**
+     * 获取厂商系统信息
+     *
+     * 厂商系统的信息在进程的生命周期内是不会变化的，但是判断的过程需要读取系统属性、反射系统类、匹配正则表达式，
+     * 而像悬浮窗权限这种需要适配厂商的权限，在一次权限请求中会判断很多次，所以这里只计算一次，后续直接复用计算结果
+     */
+    @NonNull
+    public static RomProfile getRomProfile() {
+        RomProfile romProfile = sRomProfile;
+        if (romProfile != null) {
+            return romProfile;
+        }
+        synchronized (PhoneRomUtils.class) {
+            romProfile = sRomProfile;
+            if (romProfile == null) {
+                romProfile = createRomProfile();
+                sRomProfile = romProfile;
+            }
+        }
+        return romProfile;
+    }
+
     /**
      * 判断当前厂商系统是否为 emui
      */
     public static boolean isEmui() {
-        return !TextUtils.isEmpty(PermissionUtils.getSystemPropertyValue(VERSION_PROPERTY_HUAWEI));
+        return getRomProfile().isEmui();
     }
 
     /**
      * 判断当前厂商系统是否为澎湃系统
      */
     public static boolean isHyperOs() {
-        return !TextUtils.isEmpty(PermissionUtils.getSystemPropertyValue(ROM_NAME_HYPER_OS));
+        return getRomProfile().isHyperOs();
     }
 
     /**
      * 判断当前厂商系统是否为 miui
      */
     public static boolean isMiui() {
-        if (isHyperOs()) {
+        return getRomProfile().isMiui();
+    }
+
+    /**
+     * 判断当前厂商系统是否为 ColorOs
+     */
+    public static boolean isColorOs() {
+        return getRomProfile().isColorOs();
+    }
+
+    /**
+     * 判断当前厂商系统是否为 OriginOS
+     */
+    public static boolean isOriginOs() {
+        return getRomProfile().isOriginOs();
+    }
+
+    /**
+     * 判断当前厂商系统是否为 OneUI
+     */
+    public static boolean isOneUi() {
+        return getRomProfile().isOneUi();
+    }
+
+    /**
+     * 判断当前是否为鸿蒙系统
+     */
+    public static boolean isHarmonyOs() {
+        return getRomProfile().isHarmonyOs();
+    }
+
+    /**
+     * 判断当前是否为 MagicOs 系统（荣耀）
+     */
+    public static boolean isMagicOs() {
+        return getRomProfile().isMagicOs();
+    }
+
+    /**
+     * 判断当前是否为 SmartisanOS 系统（锤子手机的系统）
+     */
+    public static boolean isSmartisanOS() {
+        return getRomProfile().isSmartisanOs();
+    }
+
+    /**
+     * 判断小米是否开启了系统优化（默认开启）
+     *
+     * 这个开关用户随时可以在开发者选项中修改，所以不能和其他厂商系统信息一样缓存起来，每次都需要重新读取
+     */
+    public static boolean isXiaomiSystemOptimization() {
+        return detectXiaomiSystemOptimization();
+    }
+
+    /**
+     * 获取厂商系统版本的大版本号
+     *
+     * @return               如果获取不到则返回 0
+     */
+    public static int getRomBigVersionCode() {
+        return getRomProfile().getRomBigVersionCode();
+    }
+
+    /**
+     * 返回经过美化的厂商系统版本号
+     */
+    @Nullable
+    public static String getRomVersionName() {
+        return getRomProfile().getRomVersionName();
+    }
+
+    /**
+     * 返回原始的厂商系统版本号
+     */
+    @Nullable
+    public static String getOriginalRomVersionName() {
+        return getRomProfile().getOriginalRomVersionName();
+    }
+
+    /**
+     * 创建厂商系统信息
+     */
+    @NonNull
+    private static RomProfile createRomProfile() {
+        final String brand = getBrand();
+        final String manufacturer = getManufacturer();
+        String originalRomVersionName = detectOriginalRomVersionName(brand, manufacturer);
+        String romVersionName = parseRomVersionName(originalRomVersionName);
+        return new RomProfile(detectEmui(), detectHyperOs(), detectMiui(), detectColorOs(), detectOriginOs(),
+            detectOneUi(brand, manufacturer), detectHarmonyOs(), detectMagicOs(brand, manufacturer),
+            detectSmartisanOs(brand, manufacturer), originalRomVersionName, romVersionName, parseRomBigVersionCode(romVersionName));
+    }
+
+    /**
+     * 判断当前厂商系统是否为 emui
+     */
+    private static boolean detectEmui() {
+        return !TextUtils.isEmpty(getRomPropertyValue(VERSION_PROPERTY_HUAWEI));
+    }
+
+    /**
+     * 判断当前厂商系统是否为澎湃系统
+     */
+    private static boolean detectHyperOs() {
+        return !TextUtils.isEmpty(getRomPropertyValue(ROM_NAME_HYPER_OS));
+    }
+
+    /**
+     * 判断当前厂商系统是否为 miui
+     */
+    private static boolean detectMiui() {
+        if (detectHyperOs()) {
             // 需要注意的是：该逻辑需要在判断 miui 系统之前判断，因为在 HyperOs 系统上面判断当前系统是否为 miui 系统也会返回 true
             // 这是因为 HyperOs 系统本身就是从 miui 系统演变而来，有这个问题也很正常，主要是厂商为了系统兼容性而保留的
             return false;
         }
-        return !TextUtils.isEmpty(PermissionUtils.getSystemPropertyValue(ROM_NAME_MIUI));
+        return !TextUtils.isEmpty(getRomPropertyValue(ROM_NAME_MIUI));
     }
 
     /**
      * 判断当前厂商系统是否为 ColorOs
      */
-    public static boolean isColorOs() {
+    private static boolean detectColorOs() {
         for (String property : VERSION_PROPERTY_OPPO) {
-            String versionName = PermissionUtils.getSystemPropertyValue(property);
+            String versionName = getRomPropertyValue(property);
             if (TextUtils.isEmpty(versionName)) {
                 continue;
             }
@@ -108,16 +259,16 @@ public final class PhoneRomUtils {
     /**
      * 判断当前厂商系统是否为 OriginOS
      */
-    public static boolean isOriginOs() {
-        return !TextUtils.isEmpty(PermissionUtils.getSystemPropertyValue(VERSION_PROPERTY_VIVO));
+    private static boolean detectOriginOs() {
+        return !TextUtils.isEmpty(getRomPropertyValue(VERSION_PROPERTY_VIVO));
     }
 
     /**
      * 判断当前厂商系统是否为 OneUI
      */
     @SuppressLint("PrivateApi")
-    public static boolean isOneUi() {
-        return isRightRom(getBrand(), getManufacturer(), ROM_SAMSUNG);
+    private static boolean detectOneUi(@NonNull String brand, @NonNull String manufacturer) {
+        return isRightRom(brand, manufacturer, ROM_SAMSUNG);
         // 暂时无法通过下面的方式判断是否为 OneUI，只能通过品牌和机型来判断
         // https://stackoverflow.com/questions/60122037/how-can-i-detect-samsung-one-ui
 //      try {
@@ -137,7 +288,7 @@ public final class PhoneRomUtils {
     /**
      * 判断当前是否为鸿蒙系统
      */
-    public static boolean isHarmonyOs() {
+    private static boolean detectHarmonyOs() {
         // 鸿蒙系统没有 Android 10 以下的
         if (!PermissionVersion.isAndroid10()) {
             return false;
@@ -159,15 +310,15 @@ public final class PhoneRomUtils {
     /**
      * 判断当前是否为 MagicOs 系统（荣耀）
      */
-    public static boolean isMagicOs() {
-        return isRightRom(getBrand(), getManufacturer(), ROM_HONOR);
+    private static boolean detectMagicOs(@NonNull String brand, @NonNull String manufacturer) {
+        return isRightRom(brand, manufacturer, ROM_HONOR);
     }
 
     /**
      * 判断当前是否为 SmartisanOS 系统（锤子手机的系统）
      */
-    public static boolean isSmartisanOS() {
-        return isRightRom(getBrand(), getManufacturer(), ROM_SMARTISAN);
+    private static boolean detectSmartisanOs(@NonNull String brand, @NonNull String manufacturer) {
+        return isRightRom(brand, manufacturer, ROM_SMARTISAN);
     }
 
     /**
@@ -180,34 +331,55 @@ public final class PhoneRomUtils {
      * 另外关于 miui 国际版开发者选项中是没有优化选项的，但是代码判断是有开启优化选项，也就是默认开启，这样是正确的
      * 相关 Github issue 地址：https://github.com/getActivity/XXPermissions/issues/38
      */
-    @SuppressLint("PrivateApi")
-    public static boolean isXiaomiSystemOptimization() {
+    private static boolean detectXiaomiSystemOptimization() {
+        Method getBooleanMethod = getSystemPropertiesGetBooleanMethod();
+        if (getBooleanMethod == null) {
+            return true;
+        }
+        // ro 开头的属性是只读的，可以直接用缓存的值，而 persist.sys.miui_optimization 属性是可变的，每次都需要重新读取
+        String ctsValue = SystemPropertyStore.getValue("ro.miui.cts");
         try {
-            Class<?> clazz = Class.forName("android.os.SystemProperties");
-            Method getMethod = clazz.getMethod("get", String.class, String.class);
-            String ctsValue = String.valueOf(getMethod.invoke(clazz, "ro.miui.cts", ""));
-            Method getBooleanMethod = clazz.getMethod("getBoolean", String.class, boolean.class);
             return Boolean.parseBoolean(
-                String.valueOf(getBooleanMethod.invoke(clazz, "persist.sys.miui_optimization", !"1".equals(ctsValue))));
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
+                String.valueOf(getBooleanMethod.invoke(null, "persist.sys.miui_optimization", !"1".equals(ctsValue))));
         } catch (InvocationTargetException e) {
             e.printStackTrace();
-        } catch (NoSuchMethodException e) {
-            e.printStackTrace();
         } catch (IllegalAccessException e) {
             e.printStackTrace();
         }
         return true;
     }
 
+    /**
+     * 获取 SystemProperties.getBoolean 方法对象（只会反射一次）
+     */
+    @SuppressLint("PrivateApi")
+    @Nullable
+    private static Method getSystemPropertiesGetBooleanMethod() {
+        if (sSystemPropertiesGetBooleanMethodResolved) {
+            return sSystemPropertiesGetBooleanMethod;
+        }
+        synchronized (PhoneRomUtils.class) {
+            if (!sSystemPropertiesGetBooleanMethodResolved) {
+                try {
+                    Class<?> clazz = Class.forName("android.os.SystemProperties");
+                    sSystemPropertiesGetBooleanMethod = clazz.getMethod("getBoolean", String.class, boolean.class);
+                } catch (ClassNotFoundException e) {
+                    e.printStackTrace();
+                } catch (NoSuchMethodException e) {
+                    e.printStackTrace();
+                }
+                sSystemPropertiesGetBooleanMethodResolved = true;
+            }
+        }
+        return sSystemPropertiesGetBooleanMethod;
+    }
+
     /**
      * 获取厂商系统版本的大版本号
      *
      * @return               如果获取不到则返回 0
      */
-    public static int getRomBigVersionCode() {
-        String romVersionName = PhoneRomUtils.getRomVersionName();
+    private static int parseRomBigVersionCode(@Nullable String romVersionName) {
         if (romVersionName == null) {
             return 0;
         }
@@ -228,16 +400,13 @@ public final class PhoneRomUtils {
      * 返回经过美化的厂商系统版本号
      */
     @Nullable
-    public static String getRomVersionName() {
-        String originalRomVersionName = getOriginalRomVersionName();
-
+    private static String parseRomVersionName(@Nullable String originalRomVersionName) {
         if (TextUtils.isEmpty(originalRomVersionName)) {
             return null;
         }
 
         // 使用正则表达式匹配数字和点号组成的版本号
-        Pattern pattern = Pattern.compile("(\\d+(?:\\.\\d+)+)");
-        Matcher matcher = pattern.matcher(originalRomVersionName);
+        Matcher matcher = ROM_VERSION_NAME_PATTERN.matcher(originalRomVersionName);
 
         if (matcher.find()) {
             return matcher.group(1);
@@ -250,11 +419,9 @@ public final class PhoneRomUtils {
      * 返回原始的厂商系统版本号
      */
     @Nullable
-    public static String getOriginalRomVersionName() {
-        final String brand = getBrand();
-        final String manufacturer = getManufacturer();
+    private static String detectOriginalRomVersionName(@NonNull String brand, @NonNull String manufacturer) {
         if (isRightRom(brand, manufacturer, ROM_HUAWEI)) {
-            String version = PermissionUtils.getSystemPropertyValue(VERSION_PROPERTY_HUAWEI);
+            String version = getRomPropertyValue(VERSION_PROPERTY_HUAWEI);
             String[] temp = version.split("_");
             if (temp.length > 1) {
                 return temp[1];
@@ -268,11 +435,11 @@ public final class PhoneRomUtils {
         }
         if (isRightRom(brand, manufacturer, ROM_VIVO)) {
             // 需要注意的是 vivo iQOO 9 Pro Android 12 获取到的厂商版本号是 OriginOS Ocean
-            return PermissionUtils.getSystemPropertyValue(VERSION_PROPERTY_VIVO);
+            return getRomPropertyValue(VERSION_PROPERTY_VIVO);
         }
         if (isRightRom(brand, manufacturer, ROM_XIAOMI)) {
             for (String property : VERSION_PROPERTY_XIAOMI) {
-                String versionName = PermissionUtils.getSystemPropertyValue(property);
+                String versionName = getRomPropertyValue(property);
                 if (TextUtils.isEmpty(property)) {
                     continue;
                 }
@@ -282,7 +449,7 @@ public final class PhoneRomUtils {
         }
         if (isRightRom(brand, manufacturer, ROM_OPPO)) {
             for (String property : VERSION_PROPERTY_OPPO) {
-                String versionName = PermissionUtils.getSystemPropertyValue(property);
+                String versionName = getRomPropertyValue(property);
                 if (TextUtils.isEmpty(property)) {
                     continue;
                 }
@@ -291,24 +458,24 @@ public final class PhoneRomUtils {
             return "";
         }
         if (isRightRom(brand, manufacturer, ROM_LEECO)) {
-            return PermissionUtils.getSystemPropertyValue(VERSION_PROPERTY_LEECO);
+            return getRomPropertyValue(VERSION_PROPERTY_LEECO);
         }
 
         if (isRightRom(brand, manufacturer, ROM_360)) {
-            return PermissionUtils.getSystemPropertyValue(VERSION_PROPERTY_360);
+            return getRomPropertyValue(VERSION_PROPERTY_360);
         }
         if (isRightRom(brand, manufacturer, ROM_ZTE)) {
-            return PermissionUtils.getSystemPropertyValue(VERSION_PROPERTY_ZTE);
+            return getRomPropertyValue(VERSION_PROPERTY_ZTE);
         }
         if (isRightRom(brand, manufacturer, ROM_ONEPLUS)) {
-            return PermissionUtils.getSystemPropertyValue(VERSION_PROPERTY_ONEPLUS);
+            return getRomPropertyValue(VERSION_PROPERTY_ONEPLUS);
         }
         if (isRightRom(brand, manufacturer, ROM_NUBIA)) {
-            return PermissionUtils.getSystemPropertyValue(VERSION_PROPERTY_NUBIA);
+            return getRomPropertyValue(VERSION_PROPERTY_NUBIA);
         }
         if (isRightRom(brand, manufacturer, ROM_HONOR)) {
             for (String property : VERSION_PROPERTY_MAGIC) {
-                String versionName = PermissionUtils.getSystemPropertyValue(property);
+                String versionName = getRomPropertyValue(property);
                 if (TextUtils.isEmpty(property)) {
                     continue;
                 }
@@ -317,7 +484,25 @@ public final class PhoneRomUtils {
             return "";
         }
 
-        return PermissionUtils.getSystemPropertyValue("");
+        return getRomPropertyValue("");
+    }
+
+    /**
+     * 获取厂商系统相关的属性值
+     *
+     * 第一次调用的时候会把所有已知的厂商属性一次性读取出来，这样在属性不存在的手机上面，
+     * 最多只会执行一次 getprop 命令和读取一次 build.prop 文件，而不是每个属性都来一遍
+     */
+    @NonNull
+    private static String getRomPropertyValue(@NonNull String propertyName) {
+        if (!sRomPropertiesPreloaded) {
+            SystemPropertyStore.preloadValues(ROM_NAME_MIUI, ROM_NAME_HYPER_OS, VERSION_PROPERTY_HUAWEI, VERSION_PROPERTY_VIVO,
+                VERSION_PROPERTY_XIAOMI[0], VERSION_PROPERTY_XIAOMI[1], VERSION_PROPERTY_OPPO[0], VERSION_PROPERTY_OPPO[1],
+                VERSION_PROPERTY_LEECO, VERSION_PROPERTY_360, VERSION_PROPERTY_ZTE, VERSION_PROPERTY_ONEPLUS, VERSION_PROPERTY_NUBIA,
+                VERSION_PROPERTY_MAGIC[0], VERSION_PROPERTY_MAGIC[1]);
+            sRomPropertiesPreloaded = true;
+        }
+        return SystemPropertyStore.getValue(propertyName);
     }
 
     private static boolean isRightRom(final String brand, final String manufacturer, final String... names) {
@@ -0,0 +1,108 @@
+package com.hjq.permissions.tools;
+
+import android.support.annotation.Nullable;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/21
+ *    desc   : 厂商系统信息（进程内只计算一次，计算完成后不可变）
+
+             注意：小米系统优化的开关不在这里，因为用户随时可以在开发者选项中修改，详见 {@link PhoneRomUtils#isXiaomiSystemOptimization()}
+ */
+public final class RomProfile {
+
+    /** 是否为 emui 系统 */
+    private final boolean mEmui;
+    /** 是否为澎湃系统 */
+    private final boolean mHyperOs;
+    /** 是否为 miui 系统 */
+    private final boolean mMiui;
+    /** 是否为 ColorOs 系统 */
+    private final boolean mColorOs;
+    /** 是否为 OriginOS 系统 */
+    private final boolean mOriginOs;
+    /** 是否为 OneUI 系统 */
+    private final boolean mOneUi;
+    /** 是否为鸿蒙系统 */
+    private final boolean mHarmonyOs;
+    /** 是否为 MagicOs 系统 */
+    private final boolean mMagicOs;
+    /** 是否为 SmartisanOS 系统 */
+    private final boolean mSmartisanOs;
+    /** 原始的厂商系统版本号 */
+    @Nullable
+    private final String mOriginalRomVersionName;
+    /** 经过美化的厂商系统版本号 */
+    @Nullable
+    private final String mRomVersionName;
+    /** 厂商系统版本的大版本号 */
+    private final int mRomBigVersionCode;
+
+    RomProfile(boolean emui, boolean hyperOs, boolean miui, boolean colorOs, boolean originOs,
+               boolean oneUi, boolean harmonyOs, boolean magicOs, boolean smartisanOs,
+               @Nullable String originalRomVersionName, @Nullable String romVersionName, int romBigVersionCode) {
+        mEmui = emui;
+        mHyperOs = hyperOs;
+        mMiui = miui;
+        mColorOs = colorOs;
+        mOriginOs = originOs;
+        mOneUi = oneUi;
+        mHarmonyOs = harmonyOs;
+        mMagicOs = magicOs;
+        mSmartisanOs = smartisanOs;
+        mOriginalRomVersionName = originalRomVersionName;
+        mRomVersionName = romVersionName;
+        mRomBigVersionCode = romBigVersionCode;
+    }
+
+    public boolean isEmui() {
+        return mEmui;
+    }
+
+    public boolean isHyperOs() {
+        return mHyperOs;
+    }
+
+    public boolean isMiui() {
+        return mMiui;
+    }
+
+    public boolean isColorOs() {
+        return mColorOs;
+    }
+
+    public boolean isOriginOs() {
+        return mOriginOs;
+    }
+
+    public boolean isOneUi() {
+        return mOneUi;
+    }
+
+    public boolean isHarmonyOs() {
+        return mHarmonyOs;
+    }
+
+    public boolean isMagicOs() {
+        return mMagicOs;
+    }
+
+    public boolean isSmartisanOs() {
+        return mSmartisanOs;
+    }
+
+    @Nullable
+    public String getOriginalRomVersionName() {
+        return mOriginalRomVersionName;
+    }
+
+    @Nullable
+    public String getRomVersionName() {
+        return mRomVersionName;
+    }
+
+    public int getRomBigVersionCode() {
+        return mRomBigVersionCode;
+    }
+}
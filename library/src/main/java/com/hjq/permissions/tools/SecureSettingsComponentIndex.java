@@ -0,0 +1,164 @@
+package com.hjq.permissions.tools;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.provider.Settings;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/29
+ *    desc   : Settings.Secure 中组件列表设置项的索引
+ *
+ *             像 enabled_notification_listeners 和 enabled_accessibility_services 这类设置项，
+ *             存放的是用冒号分隔的组件名列表，如果每次判断权限都重新读取并解析一遍，会产生大量的临时对象，
+ *             所以这里将解析的结果存放在 HashSet 中，并且监听设置项的变化，只有设置项发生变化之后才会重新解析
+ *
+ *             精准匹配用的是包名和类名组成的组件对象，而不是只比较类名，因为不同的应用是有可能存在同名的类的，
+ *             模糊匹配（只知道包名）的情况单独用一个包名集合来判断
+ */
+public final class SecureSettingsComponentIndex {
+
+    /** 通知栏监听服务的设置项 */
+    public static final String SETTING_ENABLED_NOTIFICATION_LISTENERS = "enabled_notification_listeners";
+
+    /** 无障碍服务的设置项 */
+    public static final String SETTING_ENABLED_ACCESSIBILITY_SERVICES = Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES;
+
+    /** 设置项解析结果缓存集合 */
+    private static final ConcurrentMap<String, ComponentIndex> COMPONENT_INDEX_CACHE_MAP = new ConcurrentHashMap<>();
+
+    /** 设置项的变化次数（每次设置项发生变化都会加一，用于判断解析的过程中设置项有没有发生过变化） */
+    private static final ConcurrentMap<String, AtomicInteger> SETTING_GENERATION_MAP = new ConcurrentHashMap<>();
+
+    /** 已经注册过监听的设置项 */
+    private static final Set<String> OBSERVED_SETTING_NAMES = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /** 私有化构造函数 */
+    private SecureSettingsComponentIndex() {}
+
+    /**
+     * 判断设置项中是否包含某个组件（包名和类名都需要一致）
+     */
+    public static boolean containsComponent(@NonNull Context context, @NonNull String settingName, @NonNull ComponentName componentName) {
+        return getComponentIndex(context, settingName).componentNames.contains(componentName);
+    }
+
+    /**
+     * 判断设置项中是否包含某个包名的组件
+     */
+    public static boolean containsPackageName(@NonNull Context context, @NonNull String settingName, @NonNull String packageName) {
+        return getComponentIndex(context, settingName).packageNames.contains(packageName);
+    }
+
+    /**
+     * 获取设置项的解析结果
+     */
+    @NonNull
+    private static ComponentIndex getComponentIndex(@NonNull Context context, @NonNull String settingName) {
+        ComponentIndex componentIndex = COMPONENT_INDEX_CACHE_MAP.get(settingName);
+        if (componentIndex != null) {
+            return componentIndex;
+        }
+        // 需要先注册监听再读取设置项，否则在这中间发生的变化就感知不到了
+        boolean observed = registerContentObserver(context, settingName);
+        AtomicInteger generation = getSettingGeneration(settingName);
+        int startGeneration = generation.get();
+        componentIndex = new ComponentIndex(Settings.Secure.getString(context.getContentResolver(), settingName));
+        // 如果监听注册失败了，就不能缓存解析的结果，否则设置项发生变化之后就没有办法更新了
+        if (!observed) {
+            return componentIndex;
+        }
+        // 先放入缓存再检查变化次数：如果在读取的过程中设置项发生了变化，那么读取到的可能是旧的值，
+        // 这个时候需要把刚刚放入的缓存移除掉（只移除自己放入的那个），而放入之后发生的变化会由监听器负责移除
+        COMPONENT_INDEX_CACHE_MAP.put(settingName, componentIndex);
+        if (generation.get() != startGeneration) {
+            COMPONENT_INDEX_CACHE_MAP.remove(settingName, componentIndex);
+        }
+        return componentIndex;
+    }
+
+    /**
+     * 获取设置项的变化次数
+     */
+    @NonNull
+    private static AtomicInteger getSettingGeneration(@NonNull String settingName) {
+        AtomicInteger generation = SETTING_GENERATION_MAP.get(settingName);
+        if (generation != null) {
+            return generation;
+        }
+        generation = new AtomicInteger();
+        AtomicInteger oldGeneration = SETTING_GENERATION_MAP.putIfAbsent(settingName, generation);
+        return oldGeneration != null ? oldGeneration : generation;
+    }
+
+    /**
+     * 注册设置项变化的监听（每个设置项只会注册一次）
+     */
+    private static boolean registerContentObserver(@NonNull Context context, @NonNull final String settingName) {
+        if (OBSERVED_SETTING_NAMES.contains(settingName)) {
+            return true;
+        }
+        synchronized (SecureSettingsComponentIndex.class) {
+            if (OBSERVED_SETTING_NAMES.contains(settingName)) {
+                return true;
+            }
+            Context applicationContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+            try {
+                // 这里传入的 Handler 为空，回调会在 Binder 线程中执行，这里只是清除缓存，所以在哪个线程中执行都没有关系
+                applicationContext.getContentResolver().registerContentObserver(Settings.Secure.getUriFor(settingName), false, new ContentObserver(null) {
+
+                    @Override
+                    public void onChange(boolean selfChange) {
+                        getSettingGeneration(settingName).incrementAndGet();
+                        COMPONENT_INDEX_CACHE_MAP.remove(settingName);
+                    }
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                return false;
+            }
+            OBSERVED_SETTING_NAMES.add(settingName);
+            return true;
+        }
+    }
+
+    /**
+     * 组件名索引
+     */
+    private static final class ComponentIndex {
+
+        /** 组件集合（ComponentName 的 equals 方法比较的是包名和类名） */
+        @NonNull
+        final Set<ComponentName> componentNames = new HashSet<>();
+
+        /** 组件的包名集合 */
+        @NonNull
+        final Set<String> packageNames = new HashSet<>();
+
+        ComponentIndex(@Nullable String settingValue) {
+            if (TextUtils.isEmpty(settingValue)) {
+                return;
+            }
+            // com.hjq.permissions.demo/com.hjq.permissions.demo.NotificationMonitorService:com.huawei.health/com.huawei.bone.ui.setting.NotificationPushListener
+            for (String component : settingValue.split(":")) {
+                ComponentName componentName = ComponentName.unflattenFromString(component);
+                if (componentName == null) {
+                    continue;
+                }
+                componentNames.add(componentName);
+                packageNames.add(componentName.getPackageName());
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.hjq.permissions.tools;
+
+import android.annotation.SuppressLint;
+import android.os.Environment;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/07/20
+ *    desc   : 系统属性存储类（进程内只读取一次）
+ */
+public final class SystemPropertyStore {
+
+    /**
+     * 系统属性值缓存集合
+     *
+     * 这里解释一下为什么获取不到的属性也要缓存（以空字符串的形式）：
+     * 厂商系统的判断是依赖某个属性是否存在来实现的，例如在非小米的手机上面，ro.miui.ui.version.name 属性是肯定不存在的，
+     * 如果不把这种结果缓存下来，每次判断都会走一遍反射、执行 getprop 命令、读取 build.prop 文件的流程，
+     * 而系统属性在进程的生命周期内是不会变化的（ro. 开头的属性是只读的），所以缓存下来是安全的
+     */
+    private static final Map<String, String> PROPERTY_CACHE_MAP = new ConcurrentHashMap<>();
+
+    /** 通过 getprop 命令读取到的全部属性（只会执行一次命令） */
+    @Nullable
+    private static volatile Map<String, String> sShellProperties;
+
+    /** 通过 build.prop 文件读取到的全部属性（只会读取一次文件） */
+    @Nullable
+    private static volatile Properties sBuildProperties;
+
+    /** 执行 getprop 命令的次数（正常情况下最多只会有一次，提供给单元测试进行验证） */
+    private static volatile int sShellPropertiesReadCount;
+
+    /** 读取 build.prop 文件的次数（正常情况下最多只会有一次，提供给单元测试进行验证） */
+    private static volatile int sBuildPropertiesReadCount;
+
+    /** SystemProperties.get 方法对象 */
+    @Nullable
+    private static volatile Method sSystemPropertiesGetMethod;
+
+    /** SystemProperties.get 方法是否反射过 */
+    private static volatile boolean sSystemPropertiesGetMethodResolved;
+
+    /** 私有化构造函数 */
+    private SystemPropertyStore() {}
+
+    /**
+     * 获取系统属性值（多种方式，结果会被缓存）
+     */
+    @NonNull
+    public static String getValue(@Nullable String propertyName) {
+        if (propertyName == null || propertyName.isEmpty()) {
+            return "";
+        }
+        String value = PROPERTY_CACHE_MAP.get(propertyName);
+        if (value != null) {
+            return value;
+        }
+        value = resolveValue(propertyName);
+        PROPERTY_CACHE_MAP.put(propertyName, value);
+        return value;
+    }
+
+    /**
+     * 预加载一批系统属性值
+     *
+     * 如果这批属性中有反射获取不到的，会统一从 getprop 命令的输出结果中查找，
+     * 这样最多只会执行一次 getprop 命令，而不是每个属性都执行一次
+     */
+    public static void preloadValues(@NonNull String... propertyNames) {
+        for (String propertyName : propertyNames) {
+            getValue(propertyName);
+        }
+    }
+
+    /**
+     * 获取执行 getprop 命令的次数
+     */
+    static int getShellPropertiesReadCount() {
+        return sShellPropertiesReadCount;
+    }
+
+    /**
+     * 获取读取 build.prop 文件的次数
+     */
+    static int getBuildPropertiesReadCount() {
+        return sBuildPropertiesReadCount;
+    }
+
+    /**
+     * 按顺序通过反射、shell 命令、build.prop 文件来获取属性值
+     */
+    @NonNull
+    private static String resolveValue(@NonNull String propertyName) {
+        String value = getValueByReflect(propertyName);
+        if (value != null && !value.isEmpty()) {
+            return value;
+        }
+
+        value = getShellProperties().get(propertyName);
+        if (value != null && !value.isEmpty()) {
+            return value;
+        }
+
+        Properties buildProperties = getBuildProperties();
+        value = buildProperties.getProperty(propertyName, "");
+        if (value != null && !value.isEmpty()) {
+            return value;
+        }
+        return "";
+    }
+
+    /**
+     * 获取系统属性值（通过反射系统类）
+     */
+    @SuppressLint("PrivateApi")
+    @Nullable
+    private static String getValueByReflect(@NonNull String propertyName) {
+        if (!sSystemPropertiesGetMethodResolved) {
+            synchronized (SystemPropertyStore.class) {
+                if (!sSystemPropertiesGetMethodResolved) {
+                    try {
+                        Class<?> clazz = Class.forName("android.os.SystemProperties");
+                        sSystemPropertiesGetMethod = clazz.getMethod("get", String.class, String.class);
+                    } catch (Exception ignored) {}
+                    sSystemPropertiesGetMethodResolved = true;
+                }
+            }
+        }
+        Method getMethod = sSystemPropertiesGetMethod;
+        if (getMethod == null) {
+            return null;
+        }
+        try {
+            return (String) getMethod.invoke(null, propertyName, "");
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取全部的系统属性（通过 shell 命令，只会执行一次）
+     */
+    @NonNull
+    private static Map<String, String> getShellProperties() {
+        Map<String, String> shellProperties = sShellProperties;
+        if (shellProperties != null) {
+            return shellProperties;
+        }
+        synchronized (SystemPropertyStore.class) {
+            shellProperties = sShellProperties;
+            if (shellProperties == null) {
+                sShellPropertiesReadCount++;
+                shellProperties = readShellProperties();
+                sShellProperties = shellProperties;
+            }
+        }
+        return shellProperties;
+    }
+
+    /**
+     * 执行 getprop 命令并解析其输出结果，输出格式为：[ro.build.version.emui]: [EmotionUI_8.0.0]
+     */
+    @NonNull
+    private static Map<String, String> readShellProperties() {
+        Map<String, String> properties = new HashMap<>();
+        BufferedReader input = null;
+        try {
+            Process process = Runtime.getRuntime().exec("getprop");
+            input = new BufferedReader(new InputStreamReader(process.getInputStream()), 1024);
+            String line;
+            while ((line = input.readLine()) != null) {
+                int separatorIndex = line.indexOf("]: [");
+                if (!line.startsWith("[") || !line.endsWith("]") || separatorIndex <= 0) {
+                    continue;
+                }
+                properties.put(line.substring(1, separatorIndex), line.substring(separatorIndex + 4, line.length() - 1));
+            }
+        } catch (IOException ignored) {
+            // default implementation ignored
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException ignored) {}
+            }
+        }
+        return Collections.unmodifiableMap(properties);
+    }
+
+    /**
+     * 获取 build.prop 文件中的全部属性（只会读取一次）
+     */
+    @NonNull
+    private static Properties getBuildProperties() {
+        Properties buildProperties = sBuildProperties;
+        if (buildProperties != null) {
+            return buildProperties;
+        }
+        synchronized (SystemPropertyStore.class) {
+            buildProperties = sBuildProperties;
+            if (buildProperties == null) {
+                sBuildPropertiesReadCount++;
+                buildProperties = readBuildProperties();
+                sBuildProperties = buildProperties;
+            }
+        }
+        return buildProperties;
+    }
+
+    /**
+     * 读取 build.prop 文件中的属性
+     */
+    @NonNull
+    private static Properties readBuildProperties() {
+        Properties properties = new Properties();
+        FileInputStream inputStream = null;
+        try {
+            File file = new File(Environment.getRootDirectory(), "build.prop");
+            inputStream = new FileInputStream(file);
+            properties.load(inputStream);
+        } catch (IOException ignored) {
+            // default implementation ignored
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException ignored) {}
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,100 @@
+package com.hjq.permissions;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import com.hjq.permissions.harness.HarnessActivity;
+import com.hjq.permissions.permission.base.IPermission;
+import com.hjq.permissions.permission.common.DangerousPermission;
+import com.hjq.permissions.tools.PermissionVersion;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 权限授予状态观察者的测试
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class PermissionStateObserverTest {
+
+    private CountingPermission mPermission;
+
+    private PermissionStateObserver mObserver;
+
+    @Before
+    public void setUp() {
+        mPermission = new CountingPermission();
+        mObserver = new PermissionStateObserver(RuntimeEnvironment.getApplication(),
+            Collections.singletonList(mPermission), (permission, granted) -> {});
+    }
+
+    @After
+    public void tearDown() {
+        mObserver.stop();
+    }
+
+    @Test
+    public void switchingActivitiesIsNotTreatedAsReturningToForeground() {
+        ActivityController<HarnessActivity> first = Robolectric.buildActivity(HarnessActivity.class).setup();
+        // 在 Activity 可见的状态下开始观察
+        mObserver.start(first.get());
+        int baselineCount = mPermission.mCheckCount;
+
+        // 打开第二个 Activity，第一个 Activity 进入后台，应用一直都是在前台的
+        ActivityController<HarnessActivity> second = Robolectric.buildActivity(HarnessActivity.class).setup();
+        first.pause().stop();
+        // 返回第一个 Activity
+        second.pause();
+        first.restart().resume();
+        second.stop().destroy();
+        ShadowLooper.idleMainLooper();
+        assertEquals(baselineCount, mPermission.mCheckCount);
+
+        // 应用真正地进入后台再回到前台，这个时候才需要重新判断
+        first.pause().stop();
+        first.restart().resume();
+        ShadowLooper.idleMainLooper();
+        assertEquals(baselineCount + 1, mPermission.mCheckCount);
+    }
+
+    /**
+     * 会记录授予状态判断次数的权限（没有办法监听到变化，只能在应用回到前台的时候重新判断）
+     */
+    private static final class CountingPermission extends DangerousPermission {
+
+        private int mCheckCount;
+
+        @NonNull
+        @Override
+        public String getPermissionName() {
+            return "com.hjq.permissions.test.OBSERVED";
+        }
+
+        @Override
+        public int getFromAndroidVersion() {
+            return PermissionVersion.ANDROID_6;
+        }
+
+        @Override
+        public boolean isGrantedPermission(@NonNull Context context, boolean skipRequest) {
+            mCheckCount++;
+            return false;
+        }
+
+        @Override
+        protected boolean isRegisterPermissionByManifestFile() {
+            return false;
+        }
+    }
+}
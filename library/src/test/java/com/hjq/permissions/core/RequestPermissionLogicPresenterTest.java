@@ -0,0 +1,88 @@
+package com.hjq.permissions.core;
+
+import android.support.annotation.NonNull;
+import com.hjq.permissions.XXPermissions;
+import com.hjq.permissions.harness.FakePermissionSystem;
+import com.hjq.permissions.harness.FakePermissionSystem.Decision;
+import com.hjq.permissions.harness.FakePermissionSystem.FlowResult;
+import com.hjq.permissions.harness.HarnessActivity;
+import com.hjq.permissions.permission.PermissionLists;
+import com.hjq.permissions.permission.PermissionNames;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 权限请求流程中判断授予状态次数（跨进程调用次数）的测试
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class RequestPermissionLogicPresenterTest {
+
+    /**
+     * 一次权限请求流程中 checkSelfPermission 的调用次数上限
+     *
+     * 六个权限（相机、录音、精确定位、模糊定位、读写通讯录）在 Android 14 上面实测是 17 次，
+     * 其中有一部分是请求前的预检查和请求结果的分类，这两个地方的判断语义不一样，没有走授予状态快照，
+     * 如果授予状态快照失效了（同一个权限在外层循环、分组循环、待申请列表里面被反复判断），实测会变成 21 次
+     */
+    private static final int MAX_CHECK_SELF_PERMISSION_COUNT = 17;
+
+    private FakePermissionSystem mPermissionSystem;
+
+    @Before
+    public void setUp() {
+        XXPermissions.setCheckMode(false);
+        mPermissionSystem = new FakePermissionSystem(RuntimeEnvironment.getApplication())
+            .decide(PermissionNames.CAMERA, Decision.GRANT)
+            .decide(PermissionNames.RECORD_AUDIO, Decision.DENY)
+            .decide(PermissionNames.ACCESS_FINE_LOCATION, Decision.GRANT)
+            .decide(PermissionNames.ACCESS_COARSE_LOCATION, Decision.GRANT)
+            .decide(PermissionNames.READ_CONTACTS, Decision.GRANT)
+            .decide(PermissionNames.WRITE_CONTACTS, Decision.GRANT);
+    }
+
+    @Test
+    public void grantStateIsCheckedOncePerPhase() {
+        CountingActivity activity = Robolectric.buildActivity(CountingActivity.class).setup().get();
+        List<IPermission> permissions = Arrays.asList(PermissionLists.getCameraPermission(),
+            PermissionLists.getRecordAudioPermission(), PermissionLists.getAccessFineLocationPermission(),
+            PermissionLists.getAccessCoarseLocationPermission(), PermissionLists.getReadContactsPermission(),
+            PermissionLists.getWriteContactsPermission());
+        mPermissionSystem.revoke(permissions);
+
+        activity.mCheckSelfPermissionCount = 0;
+        FlowResult result = mPermissionSystem.request(activity, permissions);
+
+        assertEquals(5, result.getGrantedPermissions().size());
+        assertEquals(1, result.getDeniedPermissions().size());
+        System.out.println("checkSelfPermission calls per request: " + activity.mCheckSelfPermissionCount);
+        assertTrue(activity.mCheckSelfPermissionCount > 0);
+        assertTrue(activity.mCheckSelfPermissionCount <= MAX_CHECK_SELF_PERMISSION_COUNT);
+    }
+
+    /**
+     * 会记录 checkSelfPermission 调用次数的 Activity（在真机上面每次调用都是一次跨进程通讯）
+     */
+    public static final class CountingActivity extends HarnessActivity {
+
+        private int mCheckSelfPermissionCount;
+
+        @Override
+        public int checkSelfPermission(@NonNull String permission) {
+            mCheckSelfPermissionCount++;
+            return super.checkSelfPermission(permission);
+        }
+    }
+}
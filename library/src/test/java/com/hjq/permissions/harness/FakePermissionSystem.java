@@ -0,0 +1,360 @@
+package com.hjq.permissions.harness;
+
+import android.app.Activity;
+import android.app.AppOpsManager;
+import android.app.Application;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Bundle;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.app.FragmentActivity;
+import com.hjq.permissions.OnPermissionCallback;
+import com.hjq.permissions.OnPermissionInterceptor;
+import com.hjq.permissions.XXPermissions;
+import com.hjq.permissions.core.RequestPermissionDelegateImpl;
+import com.hjq.permissions.core.RequestPermissionDelegateImplByDangerous;
+import com.hjq.permissions.fragment.IFragmentMethod;
+import com.hjq.permissions.permission.PermissionNames;
+import com.hjq.permissions.permission.base.IPermission;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowSettings;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 可编排的模拟权限系统（在 Robolectric 环境中代替系统的授权框和设置页）
+ *
+ *             1. 危险权限的授予状态通过 Robolectric 的 checkSelfPermission 实现来模拟
+ *             2. 悬浮窗权限通过 Settings.canDrawOverlays 来模拟，AppOps 类的特殊权限通过 AppOpsManager 来模拟
+ *             3. 框架发起权限请求之后，会按照编排好的结果（授予或者拒绝）回调给框架的 Fragment，
+ *                回调之前会先让模拟时钟走过一段时间，用来模拟用户在授权框或者设置页中的操作耗时
+ *             4. App 包和 Support 包的 Fragment 走的都是框架真实的流程，这里只负责代替系统给出结果
+ */
+public final class FakePermissionSystem {
+
+    /** 用户在授权框或者设置页中的操作 */
+    public enum Decision {
+        /** 授予 */
+        GRANT,
+        /** 拒绝 */
+        DENY
+    }
+
+    /** 一次权限请求流程最多推进的次数（超过则认为流程卡住了） */
+    private static final int MAX_DRIVE_STEPS = 10000;
+
+    /** 通过 AppOps 判断授予状态的特殊权限（key 为权限名称，value 为 AppOps 的名称） */
+    private static final Map<String, String> APP_OPS_PERMISSION_MAP = new HashMap<>();
+
+    static {
+        APP_OPS_PERMISSION_MAP.put(PermissionNames.PACKAGE_USAGE_STATS, AppOpsManager.OPSTR_GET_USAGE_STATS);
+        APP_OPS_PERMISSION_MAP.put(PermissionNames.PICTURE_IN_PICTURE, AppOpsManager.OPSTR_PICTURE_IN_PICTURE);
+    }
+
+    @NonNull
+    private final Application mApplication;
+
+    /** 编排好的用户操作（key 为权限名称） */
+    private final Map<String, Decision> mDecisionMap = new HashMap<>();
+
+    /** 没有编排的权限的用户操作 */
+    @NonNull
+    private Decision mDefaultDecision = Decision.DENY;
+
+    /** 用户在授权框或者设置页中的操作耗时 */
+    private long mDialogLatencyMillis;
+
+    /** 已经监听过 Fragment 生命周期的 Activity */
+    private final Set<Activity> mObservedActivities = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** 已经添加到 Activity 上面的 App 包 Fragment */
+    private final List<Object> mAttachedAppFragments = new ArrayList<>();
+
+    /** 已经给出过结果的 Fragment（同一个 Fragment 只会给出一次结果） */
+    private final Set<Object> mAnsweredFragments = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** 弹出过授权框的次数 */
+    private int mPermissionDialogCount;
+
+    /** 跳转过设置页的次数 */
+    private int mSettingPageCount;
+
+    public FakePermissionSystem(@NonNull Application application) {
+        mApplication = application;
+    }
+
+    /**
+     * 编排某个权限的用户操作
+     */
+    public FakePermissionSystem decide(@NonNull String permissionName, @NonNull Decision decision) {
+        mDecisionMap.put(permissionName, decision);
+        return this;
+    }
+
+    /**
+     * 设置没有编排过的权限的用户操作（默认为拒绝）
+     */
+    public FakePermissionSystem decideOthers(@NonNull Decision decision) {
+        mDefaultDecision = decision;
+        return this;
+    }
+
+    /**
+     * 设置用户在授权框或者设置页中的操作耗时（模拟时钟的时间，不会真的阻塞线程）
+     */
+    public FakePermissionSystem setDialogLatencyMillis(long dialogLatencyMillis) {
+        mDialogLatencyMillis = dialogLatencyMillis;
+        return this;
+    }
+
+    public int getPermissionDialogCount() {
+        return mPermissionDialogCount;
+    }
+
+    public int getSettingPageCount() {
+        return mSettingPageCount;
+    }
+
+    /**
+     * 直接修改某个权限的授予状态（不经过授权框或者设置页）
+     */
+    public void setGranted(@NonNull String permissionName, boolean granted) {
+        if (PermissionNames.SYSTEM_ALERT_WINDOW.equals(permissionName)) {
+            ShadowSettings.setCanDrawOverlays(granted);
+            return;
+        }
+        String opName = APP_OPS_PERMISSION_MAP.get(permissionName);
+        if (opName != null) {
+            AppOpsManager appOpsManager = (AppOpsManager) mApplication.getSystemService(Application.APP_OPS_SERVICE);
+            shadowOf(appOpsManager).setMode(opName, Process.myUid(), mApplication.getPackageName(),
+                granted ? AppOpsManager.MODE_ALLOWED : AppOpsManager.MODE_IGNORED);
+            return;
+        }
+        if (granted) {
+            shadowOf(mApplication).grantPermissions(permissionName);
+        } else {
+            shadowOf(mApplication).denyPermissions(permissionName);
+        }
+    }
+
+    /**
+     * 将传入的权限全部恢复成没有授予的状态
+     */
+    public void revoke(@NonNull List<IPermission> permissions) {
+        for (IPermission permission : permissions) {
+            setGranted(permission.getPermissionName(), false);
+        }
+    }
+
+    /**
+     * 发起一次权限请求，并且一直推进到权限请求流程结束
+     */
+    @NonNull
+    public FlowResult request(@NonNull Activity activity, @NonNull List<IPermission> permissions) {
+        return request(XXPermissions.with(activity).permissions(permissions), activity);
+    }
+
+    /**
+     * 发起一次权限请求（传入的 XXPermissions 对象需要已经设置好要申请的权限），并且一直推进到权限请求流程结束
+     */
+    @NonNull
+    public FlowResult request(@NonNull XXPermissions xxPermissions, @NonNull Activity activity) {
+        observeAppFragments(activity);
+        FlowResult result = new FlowResult();
+        long startTime = System.nanoTime();
+        xxPermissions.interceptor(new OnPermissionInterceptor() {
+
+            @Override
+            public void finishPermissionRequest(@NonNull Activity activity, @NonNull List<IPermission> requestPermissions,
+                                                boolean skipRequest, @Nullable OnPermissionCallback callback) {
+                result.mFinished = true;
+            }
+        }).request(new OnPermissionCallback() {
+
+            @Override
+            public void onGranted(@NonNull List<IPermission> permissions, boolean allGranted) {
+                result.mGrantedPermissions.addAll(permissions);
+            }
+
+            @Override
+            public void onDenied(@NonNull List<IPermission> permissions, boolean doNotAskAgain) {
+                result.mDeniedPermissions.addAll(permissions);
+            }
+        });
+        drive(activity, result);
+        result.mElapsedNanos = System.nanoTime() - startTime;
+        return result;
+    }
+
+    /**
+     * 推进主线程的消息队列，并且在框架发起权限请求的时候给出结果，直到权限请求流程结束
+     */
+    private void drive(@NonNull Activity activity, @NonNull FlowResult result) {
+        ShadowLooper looper = shadowOf(Looper.getMainLooper());
+        for (int i = 0; i < MAX_DRIVE_STEPS; i++) {
+            looper.idle();
+            if (result.mFinished) {
+                return;
+            }
+            if (answerPendingRequests(activity)) {
+                continue;
+            }
+            looper.runToNextTask();
+        }
+        throw new AssertionError("The permission request flow did not finish within " + MAX_DRIVE_STEPS + " steps");
+    }
+
+    /**
+     * 给框架已经发起的权限请求给出结果
+     *
+     * @return              是否有给出过结果
+     */
+    private boolean answerPendingRequests(@NonNull Activity activity) {
+        boolean answered = false;
+        for (Object fragment : getAttachedFragments(activity)) {
+            if (!(fragment instanceof IFragmentMethod) || mAnsweredFragments.contains(fragment) || !isResumed(fragment)) {
+                continue;
+            }
+            // Fragment 在 onResume 的时候就会发起权限请求，所以只要是处于 onResume 状态，就证明它在等待系统给出结果
+            IFragmentMethod<?, ?> fragmentMethod = (IFragmentMethod<?, ?>) fragment;
+            Bundle arguments = fragmentMethod.getArguments();
+            if (arguments == null) {
+                continue;
+            }
+            mAnsweredFragments.add(fragment);
+            int requestCode = arguments.getInt(RequestPermissionDelegateImpl.REQUEST_CODE);
+            List<IPermission> permissions = getRequestPermissions(arguments);
+
+            // 模拟用户在授权框或者设置页中的操作耗时
+            if (mDialogLatencyMillis > 0) {
+                shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(mDialogLatencyMillis));
+            }
+
+            RequestPermissionDelegateImpl delegate = fragmentMethod.getRequestPermissionDelegateImpl();
+            if (delegate instanceof RequestPermissionDelegateImplByDangerous) {
+                mPermissionDialogCount++;
+                String[] permissionNames = new String[permissions.size()];
+                int[] grantResults = new int[permissions.size()];
+                for (int i = 0; i < permissions.size(); i++) {
+                    permissionNames[i] = permissions.get(i).getPermissionName();
+                    boolean granted = getDecision(permissionNames[i]) == Decision.GRANT;
+                    setGranted(permissionNames[i], granted);
+                    grantResults[i] = granted ? PackageManager.PERMISSION_GRANTED : PackageManager.PERMISSION_DENIED;
+                }
+                delegate.onFragmentRequestPermissionsResult(requestCode, permissionNames, grantResults);
+            } else {
+                mSettingPageCount++;
+                for (IPermission permission : permissions) {
+                    setGranted(permission.getPermissionName(), getDecision(permission.getPermissionName()) == Decision.GRANT);
+                }
+                delegate.onFragmentActivityResult(requestCode, Activity.RESULT_CANCELED, null);
+            }
+            answered = true;
+        }
+        return answered;
+    }
+
+    @NonNull
+    private Decision getDecision(@NonNull String permissionName) {
+        Decision decision = mDecisionMap.get(permissionName);
+        return decision != null ? decision : mDefaultDecision;
+    }
+
+    /**
+     * 监听 App 包 Fragment 的添加和移除（App 包的 FragmentManager 没有提供获取所有 Fragment 的方法）
+     */
+    @SuppressWarnings("deprecation")
+    private void observeAppFragments(@NonNull Activity activity) {
+        if (!mObservedActivities.add(activity)) {
+            return;
+        }
+        activity.getFragmentManager().registerFragmentLifecycleCallbacks(new android.app.FragmentManager.FragmentLifecycleCallbacks() {
+
+            @Override
+            public void onFragmentAttached(android.app.FragmentManager fragmentManager, android.app.Fragment fragment, Context context) {
+                mAttachedAppFragments.add(fragment);
+            }
+
+            @Override
+            public void onFragmentDetached(android.app.FragmentManager fragmentManager, android.app.Fragment fragment) {
+                mAttachedAppFragments.remove(fragment);
+                mAnsweredFragments.remove(fragment);
+            }
+        }, false);
+    }
+
+    /**
+     * 获取 Activity 上面已经添加的 Fragment（包含 App 包和 Support 包的）
+     */
+    @NonNull
+    private List<Object> getAttachedFragments(@NonNull Activity activity) {
+        List<Object> fragments = new ArrayList<>(mAttachedAppFragments);
+        if (activity instanceof FragmentActivity) {
+            List<android.support.v4.app.Fragment> supportFragments = ((FragmentActivity) activity).getSupportFragmentManager().getFragments();
+            if (supportFragments != null) {
+                fragments.addAll(supportFragments);
+            }
+        }
+        return fragments;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static boolean isResumed(@NonNull Object fragment) {
+        if (fragment instanceof android.app.Fragment) {
+            return ((android.app.Fragment) fragment).isResumed();
+        }
+        return fragment instanceof android.support.v4.app.Fragment && ((android.support.v4.app.Fragment) fragment).isResumed();
+    }
+
+    @SuppressWarnings("deprecation")
+    @NonNull
+    private static List<IPermission> getRequestPermissions(@NonNull Bundle arguments) {
+        List<IPermission> permissions = arguments.getParcelableArrayList(RequestPermissionDelegateImpl.REQUEST_PERMISSIONS);
+        return permissions != null ? permissions : Collections.emptyList();
+    }
+
+    /**
+     * 一次权限请求流程的结果
+     */
+    public static final class FlowResult {
+
+        private final List<IPermission> mGrantedPermissions = new ArrayList<>();
+
+        private final List<IPermission> mDeniedPermissions = new ArrayList<>();
+
+        private boolean mFinished;
+
+        private long mElapsedNanos;
+
+        @NonNull
+        public List<IPermission> getGrantedPermissions() {
+            return mGrantedPermissions;
+        }
+
+        @NonNull
+        public List<IPermission> getDeniedPermissions() {
+            return mDeniedPermissions;
+        }
+
+        /**
+         * 整个流程在真实时间上的耗时（模拟时钟上面的时间不算在内，所以基本上就是框架本身的开销）
+         */
+        public long getElapsedNanos() {
+            return mElapsedNanos;
+        }
+    }
+}
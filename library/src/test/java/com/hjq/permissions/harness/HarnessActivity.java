@@ -0,0 +1,22 @@
+package com.hjq.permissions.harness;
+
+import android.app.Activity;
+import android.view.Display;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 用于发起权限请求的 Activity（App 包 Fragment）
+ *
+ *             Robolectric 创建出来的 Activity 没有关联 Display，调用 getDisplay 会抛出异常，
+ *             框架在锁定屏幕方向的时候会用到，所以这里改成返回 WindowManager 的默认 Display
+ */
+public class HarnessActivity extends Activity {
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public Display getDisplay() {
+        return getWindowManager().getDefaultDisplay();
+    }
+}
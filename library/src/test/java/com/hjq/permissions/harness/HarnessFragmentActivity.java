@@ -0,0 +1,19 @@
+package com.hjq.permissions.harness;
+
+import android.support.v4.app.FragmentActivity;
+import android.view.Display;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 用于发起权限请求的 FragmentActivity（Support 包 Fragment），原因见 {@link HarnessActivity}
+ */
+public class HarnessFragmentActivity extends FragmentActivity {
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public Display getDisplay() {
+        return getWindowManager().getDefaultDisplay();
+    }
+}
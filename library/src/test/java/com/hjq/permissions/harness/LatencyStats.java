@@ -0,0 +1,75 @@
+package com.hjq.permissions.harness;
+
+import android.support.annotation.NonNull;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 耗时采样统计
+ */
+public final class LatencyStats {
+
+    @NonNull
+    private long[] mSamples;
+
+    private int mCount;
+
+    public LatencyStats(int capacity) {
+        mSamples = new long[Math.max(capacity, 1)];
+    }
+
+    /**
+     * 添加一个耗时采样
+     */
+    public void add(long value) {
+        if (mCount == mSamples.length) {
+            mSamples = Arrays.copyOf(mSamples, mSamples.length * 2);
+        }
+        mSamples[mCount++] = value;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * 获取百分位数
+     *
+     * @param percentile            百分位（0 ~ 100）
+     */
+    public long getPercentile(double percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+        long[] sortedSamples = Arrays.copyOf(mSamples, mCount);
+        Arrays.sort(sortedSamples);
+        int index = (int) Math.ceil(percentile / 100 * mCount) - 1;
+        return sortedSamples[Math.min(Math.max(index, 0), mCount - 1)];
+    }
+
+    /**
+     * 获取平均值
+     */
+    public double getAverage() {
+        if (mCount == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < mCount; i++) {
+            sum += mSamples[i];
+        }
+        return sum / mCount;
+    }
+
+    /**
+     * 以纳秒为单位的采样输出成以微秒为单位的报告
+     */
+    @NonNull
+    public String toMicrosReport(@NonNull String name) {
+        return String.format(Locale.ROOT, "%s: count = %d, p50 = %d us, p99 = %d us, avg = %.1f us",
+            name, mCount, getPercentile(50) / 1000, getPercentile(99) / 1000, getAverage() / 1000);
+    }
+}
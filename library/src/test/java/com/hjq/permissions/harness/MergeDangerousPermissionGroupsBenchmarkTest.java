@@ -0,0 +1,151 @@
+package com.hjq.permissions.harness;
+
+import android.app.Activity;
+import android.support.annotation.NonNull;
+import com.hjq.permissions.OnPermissionMetricsListener;
+import com.hjq.permissions.PermissionRequestPhase;
+import com.hjq.permissions.XXPermissions;
+import com.hjq.permissions.harness.FakePermissionSystem.Decision;
+import com.hjq.permissions.harness.FakePermissionSystem.FlowResult;
+import com.hjq.permissions.permission.PermissionLists;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 合并危险权限组和逐组申请两种模式的对比测试（Fragment 事务次数、授权框次数、流程耗时）
+ *
+ *             流程耗时取的是 {@link PermissionRequestPhase#REQUEST} 阶段的耗时，走的是模拟时钟，
+ *             包含了模拟用户在授权框中的操作耗时以及框架在两批权限之间的等待时间
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class MergeDangerousPermissionGroupsBenchmarkTest {
+
+    /** 每种模式请求的次数 */
+    private static final int FLOW_COUNT = 200;
+
+    /** 模拟用户在授权框中的操作耗时 */
+    private static final long DIALOG_LATENCY_MILLIS = 300;
+
+    private FakePermissionSystem mPermissionSystem;
+
+    private final PhaseCounter mPhaseCounter = new PhaseCounter();
+
+    @Before
+    public void setUp() {
+        XXPermissions.setCheckMode(false);
+        XXPermissions.setPermissionMetricsListener(mPhaseCounter);
+        mPermissionSystem = new FakePermissionSystem(RuntimeEnvironment.getApplication())
+            .decideOthers(Decision.GRANT)
+            .setDialogLatencyMillis(DIALOG_LATENCY_MILLIS);
+    }
+
+    @After
+    public void tearDown() {
+        XXPermissions.setPermissionMetricsListener(null);
+        XXPermissions.setMergeDangerousPermissionGroups(false);
+    }
+
+    @Test
+    public void mergedModeUsesOneFragmentForAllForegroundGroups() {
+        Activity activity = Robolectric.buildActivity(HarnessActivity.class).setup().get();
+        // 四个不同的权限组：相机、麦克风、通讯录、定位
+        List<IPermission> permissions = Arrays.asList(PermissionLists.getCameraPermission(),
+            PermissionLists.getRecordAudioPermission(), PermissionLists.getReadContactsPermission(),
+            PermissionLists.getAccessFineLocationPermission());
+
+        XXPermissions.setMergeDangerousPermissionGroups(false);
+        ModeStats separate = runMode("Separate groups", activity, permissions);
+
+        XXPermissions.setMergeDangerousPermissionGroups(true);
+        ModeStats merged = runMode("Merged groups", activity, permissions);
+
+        // 逐组申请的模式下每个权限组都是一个 Fragment，合并之后只有一个
+        assertEquals(permissions.size(), separate.mFragmentCommitsPerFlow);
+        assertEquals(1, merged.mFragmentCommitsPerFlow);
+        assertEquals(permissions.size(), separate.mDialogsPerFlow);
+        assertEquals(1, merged.mDialogsPerFlow);
+        assertTrue(merged.mRequestLatency.getPercentile(50) < separate.mRequestLatency.getPercentile(50));
+    }
+
+    @NonNull
+    private ModeStats runMode(@NonNull String name, @NonNull Activity activity, @NonNull List<IPermission> permissions) {
+        LatencyStats requestLatency = new LatencyStats(FLOW_COUNT);
+        LatencyStats overhead = new LatencyStats(FLOW_COUNT);
+        int fragmentCommitCount = 0;
+        int dialogCount = 0;
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            mPermissionSystem.revoke(permissions);
+            mPhaseCounter.reset();
+            int dialogCountBefore = mPermissionSystem.getPermissionDialogCount();
+            FlowResult result = mPermissionSystem.request(activity, permissions);
+            assertEquals(permissions.size(), result.getGrantedPermissions().size());
+            fragmentCommitCount += mPhaseCounter.mFragmentCommitCount;
+            dialogCount += mPermissionSystem.getPermissionDialogCount() - dialogCountBefore;
+            requestLatency.add(mPhaseCounter.mRequestDurationNanos);
+            overhead.add(result.getElapsedNanos());
+        }
+        ModeStats stats = new ModeStats(fragmentCommitCount / FLOW_COUNT, dialogCount / FLOW_COUNT, requestLatency);
+        System.out.println(name + ": fragment commits per flow = " + stats.mFragmentCommitsPerFlow +
+            ", permission dialogs per flow = " + stats.mDialogsPerFlow);
+        System.out.println(requestLatency.toMicrosReport(name + " request latency (virtual clock)"));
+        System.out.println(overhead.toMicrosReport(name + " framework overhead (wall clock)"));
+        return stats;
+    }
+
+    /**
+     * 一种模式的统计结果
+     */
+    private static final class ModeStats {
+
+        private final int mFragmentCommitsPerFlow;
+
+        private final int mDialogsPerFlow;
+
+        @NonNull
+        private final LatencyStats mRequestLatency;
+
+        private ModeStats(int fragmentCommitsPerFlow, int dialogsPerFlow, @NonNull LatencyStats requestLatency) {
+            mFragmentCommitsPerFlow = fragmentCommitsPerFlow;
+            mDialogsPerFlow = dialogsPerFlow;
+            mRequestLatency = requestLatency;
+        }
+    }
+
+    /**
+     * 统计一次权限请求流程中 Fragment 事务的次数和整个流程的耗时
+     */
+    private static final class PhaseCounter implements OnPermissionMetricsListener {
+
+        private int mFragmentCommitCount;
+
+        private long mRequestDurationNanos;
+
+        private void reset() {
+            mFragmentCommitCount = 0;
+            mRequestDurationNanos = 0;
+        }
+
+        @Override
+        public void onPhaseEnd(@NonNull PermissionRequestPhase phase, @NonNull List<IPermission> permissions, long durationNanos) {
+            if (phase == PermissionRequestPhase.FRAGMENT_COMMIT) {
+                mFragmentCommitCount++;
+            } else if (phase == PermissionRequestPhase.REQUEST) {
+                mRequestDurationNanos = durationNanos;
+            }
+        }
+    }
+}
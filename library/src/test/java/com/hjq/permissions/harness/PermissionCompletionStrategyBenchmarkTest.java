@@ -0,0 +1,113 @@
+package com.hjq.permissions.harness;
+
+import android.app.Activity;
+import android.support.annotation.NonNull;
+import com.hjq.permissions.OnPermissionMetricsListener;
+import com.hjq.permissions.PermissionCompletionStrategy;
+import com.hjq.permissions.PermissionRequestPhase;
+import com.hjq.permissions.XXPermissions;
+import com.hjq.permissions.harness.FakePermissionSystem.Decision;
+import com.hjq.permissions.harness.FakePermissionSystem.FlowResult;
+import com.hjq.permissions.permission.PermissionLists;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 不同收尾策略下权限请求结果回调延迟的对比测试
+ *
+ *             统计的是 {@link PermissionRequestPhase#RESULT_DELAY} 阶段的耗时，也就是从所有权限请求完成到开始回调结果的时间，
+ *             这个阶段的耗时走的是模拟时钟，所以只和收尾策略有关系，和测试机器的性能无关
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class PermissionCompletionStrategyBenchmarkTest {
+
+    /** 每种策略请求的次数 */
+    private static final int FLOW_COUNT = 200;
+
+    /** DELAYED 策略的固定延迟时间 */
+    private static final long DELAYED_STRATEGY_MILLIS = 100;
+
+    private FakePermissionSystem mPermissionSystem;
+
+    private final ResultDelayRecorder mResultDelayRecorder = new ResultDelayRecorder();
+
+    @Before
+    public void setUp() {
+        XXPermissions.setCheckMode(false);
+        XXPermissions.setPermissionMetricsListener(mResultDelayRecorder);
+        mPermissionSystem = new FakePermissionSystem(RuntimeEnvironment.getApplication())
+            .decideOthers(Decision.GRANT);
+    }
+
+    @After
+    public void tearDown() {
+        XXPermissions.setPermissionMetricsListener(null);
+        XXPermissions.setPermissionCompletionStrategy(PermissionCompletionStrategy.DELAYED);
+    }
+
+    @Test
+    public void defaultStrategyIsDelayed() {
+        assertEquals(PermissionCompletionStrategy.DELAYED, XXPermissions.getPermissionCompletionStrategy());
+    }
+
+    @Test
+    public void compareResultDelayOfStrategies() {
+        Activity activity = Robolectric.buildActivity(HarnessActivity.class).setup().get();
+        List<IPermission> permissions = Collections.singletonList(PermissionLists.getCameraPermission());
+
+        LatencyStats delayed = runStrategy(PermissionCompletionStrategy.DELAYED, activity, permissions);
+        LatencyStats nextFrame = runStrategy(PermissionCompletionStrategy.NEXT_FRAME, activity, permissions);
+        LatencyStats idle = runStrategy(PermissionCompletionStrategy.IDLE, activity, permissions);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(DELAYED_STRATEGY_MILLIS), delayed.getPercentile(50));
+        assertTrue(nextFrame.getPercentile(99) < delayed.getPercentile(50));
+        assertTrue(idle.getPercentile(99) < delayed.getPercentile(50));
+    }
+
+    @NonNull
+    private LatencyStats runStrategy(@NonNull PermissionCompletionStrategy strategy, @NonNull Activity activity,
+                                     @NonNull List<IPermission> permissions) {
+        XXPermissions.setPermissionCompletionStrategy(strategy);
+        LatencyStats stats = new LatencyStats(FLOW_COUNT);
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            mPermissionSystem.revoke(permissions);
+            mResultDelayRecorder.mResultDelayNanos = -1;
+            FlowResult result = mPermissionSystem.request(activity, permissions);
+            assertEquals(permissions.size(), result.getGrantedPermissions().size());
+            assertTrue(mResultDelayRecorder.mResultDelayNanos >= 0);
+            stats.add(mResultDelayRecorder.mResultDelayNanos);
+        }
+        System.out.println(stats.toMicrosReport("Result delay (" + strategy + ", virtual clock)"));
+        return stats;
+    }
+
+    /**
+     * 记录每一次权限请求流程中 {@link PermissionRequestPhase#RESULT_DELAY} 阶段的耗时
+     */
+    private static final class ResultDelayRecorder implements OnPermissionMetricsListener {
+
+        private long mResultDelayNanos;
+
+        @Override
+        public void onPhaseEnd(@NonNull PermissionRequestPhase phase, @NonNull List<IPermission> permissions, long durationNanos) {
+            if (phase == PermissionRequestPhase.RESULT_DELAY) {
+                mResultDelayNanos = durationNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.hjq.permissions.harness;
+
+import android.app.Activity;
+import android.support.v4.app.FragmentActivity;
+import com.hjq.permissions.XXPermissions;
+import com.hjq.permissions.harness.FakePermissionSystem.Decision;
+import com.hjq.permissions.harness.FakePermissionSystem.FlowResult;
+import com.hjq.permissions.permission.PermissionLists;
+import com.hjq.permissions.permission.PermissionNames;
+import com.hjq.permissions.permission.base.IPermission;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 权限请求全流程（拦截器、分批、Fragment、系统结果、回调）的耗时基准测试
+ *
+ *             授权框的停留时间走的是模拟时钟，所以统计出来的耗时基本上就是框架本身的开销
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class RequestFlowBenchmarkTest {
+
+    /** 预热的次数（不计入统计） */
+    private static final int WARM_UP_FLOW_COUNT = 200;
+
+    /** 统计的次数 */
+    private static final int MEASURE_FLOW_COUNT = 2000;
+
+    /** 模拟用户在授权框中的操作耗时 */
+    private static final long DIALOG_LATENCY_MILLIS = 300;
+
+    private FakePermissionSystem mPermissionSystem;
+
+    @Before
+    public void setUp() {
+        XXPermissions.setCheckMode(false);
+        mPermissionSystem = new FakePermissionSystem(RuntimeEnvironment.getApplication())
+            .decide(PermissionNames.CAMERA, Decision.GRANT)
+            .decide(PermissionNames.RECORD_AUDIO, Decision.DENY)
+            .decide(PermissionNames.SYSTEM_ALERT_WINDOW, Decision.GRANT)
+            .setDialogLatencyMillis(DIALOG_LATENCY_MILLIS);
+    }
+
+    @Test
+    public void requestFlowThroughAppFragment() {
+        Activity activity = Robolectric.buildActivity(HarnessActivity.class).setup().get();
+        runBenchmark("App Fragment", activity);
+    }
+
+    @Test
+    public void requestFlowThroughSupportFragment() {
+        FragmentActivity activity = Robolectric.buildActivity(HarnessFragmentActivity.class).setup().get();
+        runBenchmark("Support Fragment", activity);
+    }
+
+    private void runBenchmark(String name, Activity activity) {
+        List<IPermission> permissions = Arrays.asList(PermissionLists.getCameraPermission(),
+            PermissionLists.getRecordAudioPermission(), PermissionLists.getSystemAlertWindowPermission());
+        LatencyStats stats = new LatencyStats(MEASURE_FLOW_COUNT);
+        for (int i = 0; i < WARM_UP_FLOW_COUNT + MEASURE_FLOW_COUNT; i++) {
+            mPermissionSystem.revoke(permissions);
+            FlowResult result = mPermissionSystem.request(activity, permissions);
+            // 相机权限和悬浮窗权限授予了，录音权限被拒绝了
+            assertEquals(2, result.getGrantedPermissions().size());
+            assertEquals(1, result.getDeniedPermissions().size());
+            if (i >= WARM_UP_FLOW_COUNT) {
+                stats.add(result.getElapsedNanos());
+            }
+        }
+        assertEquals(MEASURE_FLOW_COUNT, stats.getCount());
+        assertTrue(stats.getPercentile(50) > 0);
+        System.out.println(stats.toMicrosReport("Request flow overhead (" + name + ")"));
+    }
+}
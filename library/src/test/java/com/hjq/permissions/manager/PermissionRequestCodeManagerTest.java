@@ -0,0 +1,149 @@
+package com.hjq.permissions.manager;
+
+import com.hjq.permissions.XXPermissions;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 请求码管理类的并发测试
+ */
+public final class PermissionRequestCodeManagerTest {
+
+    /** 请求码限制为低值时的可用请求码范围：(255 / 2) ~ (255 - 1) */
+    private static final int LOW_WINDOW_MIN = PermissionRequestCodeManager.REQUEST_CODE_LIMIT_LOW_VALUE / 2;
+    private static final int LOW_WINDOW_SIZE = PermissionRequestCodeManager.REQUEST_CODE_LIMIT_LOW_VALUE - LOW_WINDOW_MIN;
+
+    /** 请求码限制为高值时的可用请求码范围：(65535 - 10000) ~ (65535 - 1) */
+    private static final int HIGH_WINDOW_MIN = PermissionRequestCodeManager.REQUEST_CODE_LIMIT_HIGH_VALUE - 10000;
+
+    private static final int THREAD_COUNT = 8;
+
+    private static final int ITERATIONS_PER_THREAD = 20000;
+
+    /** 每个线程同时占用的请求码数量（所有线程加起来不能超过低值范围的请求码数量，否则会触发借用） */
+    private static final int HELD_PER_THREAD = 8;
+
+    @Test
+    public void concurrentAllocateAndReleaseNeverHandsOutAnOccupiedCode() throws Exception {
+        // 记录每个请求码当前是否有占用方，如果分配出来的请求码已经有占用方了，就证明同一个请求码被分配了两次
+        AtomicIntegerArray owners = new AtomicIntegerArray(PermissionRequestCodeManager.REQUEST_CODE_LIMIT_HIGH_VALUE + 1);
+        AtomicInteger duplicateCount = new AtomicInteger();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREAD_COUNT; thread++) {
+            futures.add(executor.submit(() -> {
+                startLatch.await();
+                Queue<Integer> heldRequestCodes = new ArrayDeque<>();
+                for (int i = 0; i < ITERATIONS_PER_THREAD; i++) {
+                    boolean lowValue = i % 2 == 0;
+                    int requestCode = PermissionRequestCodeManager.generateRandomRequestCode(lowValue ?
+                        PermissionRequestCodeManager.REQUEST_CODE_LIMIT_LOW_VALUE : PermissionRequestCodeManager.REQUEST_CODE_LIMIT_HIGH_VALUE);
+                    assertInWindow(requestCode, lowValue);
+                    if (!owners.compareAndSet(requestCode, 0, 1)) {
+                        duplicateCount.incrementAndGet();
+                        continue;
+                    }
+                    heldRequestCodes.add(requestCode);
+                    if (heldRequestCodes.size() > HELD_PER_THREAD) {
+                        release(owners, heldRequestCodes.poll());
+                    }
+                }
+                while (!heldRequestCodes.isEmpty()) {
+                    release(owners, heldRequestCodes.poll());
+                }
+                return null;
+            }));
+        }
+        startLatch.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(0, duplicateCount.get());
+        // 全部释放之后，不能有请求码一直处于占用状态
+        assertWholeLowWindowAvailable();
+    }
+
+    @Test
+    public void exhaustedWindowBorrowsWithoutFreeingTheOwnersCode() {
+        List<Integer> ownedRequestCodes = new ArrayList<>();
+        for (int i = 0; i < LOW_WINDOW_SIZE; i++) {
+            ownedRequestCodes.add(PermissionRequestCodeManager.generateRandomRequestCode(PermissionRequestCodeManager.REQUEST_CODE_LIMIT_LOW_VALUE));
+        }
+        assertEquals(LOW_WINDOW_SIZE, new HashSet<>(ownedRequestCodes).size());
+
+        // 请求码已经全部被占用了，只能借用一个已经被占用的请求码
+        int borrowedRequestCode = PermissionRequestCodeManager.generateRandomRequestCode(PermissionRequestCodeManager.REQUEST_CODE_LIMIT_LOW_VALUE);
+        assertTrue(ownedRequestCodes.contains(borrowedRequestCode));
+        // 借用方先释放，这个时候原来的占用方还在使用这个请求码
+        PermissionRequestCodeManager.releaseRequestCode(borrowedRequestCode);
+
+        // 除了借用的请求码，其他的占用方都释放掉
+        for (int requestCode : ownedRequestCodes) {
+            if (requestCode != borrowedRequestCode) {
+                PermissionRequestCodeManager.releaseRequestCode(requestCode);
+            }
+        }
+        // 原来的占用方还没有释放，所以在其他请求码被分配完之前，这个请求码不能被重新分配出去
+        List<Integer> newRequestCodes = new ArrayList<>();
+        for (int i = 0; i < LOW_WINDOW_SIZE - 1; i++) {
+            newRequestCodes.add(PermissionRequestCodeManager.generateRandomRequestCode(PermissionRequestCodeManager.REQUEST_CODE_LIMIT_LOW_VALUE));
+        }
+        assertFalse(newRequestCodes.contains(borrowedRequestCode));
+        assertEquals(LOW_WINDOW_SIZE - 1, new HashSet<>(newRequestCodes).size());
+
+        // 原来的占用方也释放掉之后，所有的请求码都应该可以重新分配
+        PermissionRequestCodeManager.releaseRequestCode(borrowedRequestCode);
+        for (int requestCode : newRequestCodes) {
+            PermissionRequestCodeManager.releaseRequestCode(requestCode);
+        }
+        assertWholeLowWindowAvailable();
+    }
+
+    private static void release(AtomicIntegerArray owners, int requestCode) {
+        // 先清除占用方的记录再释放，否则释放之后被别的线程分配到，会被误判成重复分配
+        owners.set(requestCode, 0);
+        PermissionRequestCodeManager.releaseRequestCode(requestCode);
+    }
+
+    private static void assertInWindow(int requestCode, boolean lowValue) {
+        int min = lowValue ? LOW_WINDOW_MIN : HIGH_WINDOW_MIN;
+        int max = lowValue ? PermissionRequestCodeManager.REQUEST_CODE_LIMIT_LOW_VALUE : PermissionRequestCodeManager.REQUEST_CODE_LIMIT_HIGH_VALUE;
+        assertTrue("Request code out of range: " + requestCode, requestCode >= min && requestCode < max);
+        assertTrue(requestCode != XXPermissions.REQUEST_CODE);
+    }
+
+    /**
+     * 断言低值范围内的请求码全部都可以分配（分配完之后会全部释放掉）
+     */
+    private static void assertWholeLowWindowAvailable() {
+        HashSet<Integer> requestCodes = new HashSet<>();
+        for (int i = 0; i < LOW_WINDOW_SIZE; i++) {
+            requestCodes.add(PermissionRequestCodeManager.generateRandomRequestCode(PermissionRequestCodeManager.REQUEST_CODE_LIMIT_LOW_VALUE));
+        }
+        for (int requestCode : requestCodes) {
+            PermissionRequestCodeManager.releaseRequestCode(requestCode);
+        }
+        assertEquals(LOW_WINDOW_SIZE, requestCodes.size());
+    }
+}
@@ -0,0 +1,125 @@
+package com.hjq.permissions.manager;
+
+import android.content.Context;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import com.hjq.permissions.permission.base.IPermission;
+import com.hjq.permissions.permission.common.DangerousPermission;
+import com.hjq.permissions.tools.PermissionVersion;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 权限请求间隔时间学习规则的测试
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class RequestIntervalTimeManagerTest {
+
+    /** 权限声明的间隔时间 */
+    private static final int DECLARED_TIME = 300;
+
+    private Context mContext;
+
+    private IntervalPermission mPermission;
+
+    private List<IPermission> mPermissions;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.getApplication();
+        RequestIntervalTimeManager.loadRequestIntervalTime(mContext);
+        // 读取到的结果是交给主线程合并的
+        shadowOf(Looper.getMainLooper()).idle();
+        mPermission = new IntervalPermission("com.hjq.permissions.test.INTERVAL_" + System.nanoTime());
+        mPermissions = Collections.singletonList(mPermission);
+    }
+
+    @Test
+    public void grantedRequestShrinksInterval() {
+        assertEquals(DECLARED_TIME, RequestIntervalTimeManager.getRequestIntervalTime(mContext, mPermissions));
+        grant(true);
+        assertEquals(DECLARED_TIME * 3 / 4, RequestIntervalTimeManager.getRequestIntervalTime(mContext, mPermissions));
+        grant(true);
+        assertEquals(DECLARED_TIME * 3 / 4 * 3 / 4, RequestIntervalTimeManager.getRequestIntervalTime(mContext, mPermissions));
+    }
+
+    @Test
+    public void userDenialKeepsLearnedInterval() {
+        grant(true);
+        int learnedTime = RequestIntervalTimeManager.getRequestIntervalTime(mContext, mPermissions);
+        // 授权框显示出来了，用户点了拒绝
+        mPermission.mGranted = false;
+        RequestIntervalTimeManager.recordRequestResult(mPermissions, false);
+        RequestIntervalTimeManager.updateRequestIntervalTime(mContext, mPermissions);
+        assertEquals(learnedTime, RequestIntervalTimeManager.getRequestIntervalTime(mContext, mPermissions));
+    }
+
+    @Test
+    public void silentDropResetsToDeclaredInterval() {
+        grant(true);
+        grant(true);
+        // 系统没有显示授权框，直接回调了拒绝的结果
+        mPermission.mGranted = false;
+        RequestIntervalTimeManager.recordRequestResult(mPermissions, true);
+        RequestIntervalTimeManager.updateRequestIntervalTime(mContext, mPermissions);
+        assertEquals(DECLARED_TIME, RequestIntervalTimeManager.getRequestIntervalTime(mContext, mPermissions));
+    }
+
+    private void grant(boolean granted) {
+        mPermission.mGranted = granted;
+        RequestIntervalTimeManager.recordRequestResult(mPermissions, false);
+        RequestIntervalTimeManager.updateRequestIntervalTime(mContext, mPermissions);
+    }
+
+    /**
+     * 声明了请求间隔时间，并且可以控制授予状态的权限
+     */
+    private static final class IntervalPermission extends DangerousPermission {
+
+        @NonNull
+        private final String mPermissionName;
+
+        private boolean mGranted;
+
+        private IntervalPermission(@NonNull String permissionName) {
+            mPermissionName = permissionName;
+        }
+
+        @NonNull
+        @Override
+        public String getPermissionName() {
+            return mPermissionName;
+        }
+
+        @Override
+        public int getFromAndroidVersion() {
+            return PermissionVersion.ANDROID_6;
+        }
+
+        @Override
+        public int getRequestIntervalTime(@NonNull Context context) {
+            return DECLARED_TIME;
+        }
+
+        @Override
+        public boolean isGrantedPermission(@NonNull Context context, boolean skipRequest) {
+            return mGranted;
+        }
+
+        @Override
+        protected boolean isRegisterPermissionByManifestFile() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.hjq.permissions.tools;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.hjq.permissions.XXPermissions;
+import com.hjq.permissions.harness.FakePermissionSystem;
+import com.hjq.permissions.harness.FakePermissionSystem.FlowResult;
+import com.hjq.permissions.harness.HarnessActivity;
+import com.hjq.permissions.manifest.AndroidManifestInfo;
+import com.hjq.permissions.permission.base.IPermission;
+import com.hjq.permissions.permission.common.DangerousPermission;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 权限合规检查的测试
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class PermissionCheckerTest {
+
+    /** 权限请求的次数 */
+    private static final int REQUEST_COUNT = 10000;
+
+    @Before
+    public void setUp() {
+        XXPermissions.setCheckMode(true);
+        CountingPermission.NEW_ARRAY_COUNT.set(0);
+        CountingPermission.CHECK_COMPLIANCE_COUNT.set(0);
+    }
+
+    @After
+    public void tearDown() {
+        XXPermissions.setCheckMode(false);
+    }
+
+    @Test
+    public void parcelableCheckRunsOncePerPermissionClass() {
+        Activity activity = Robolectric.buildActivity(HarnessActivity.class).setup().get();
+        FakePermissionSystem permissionSystem = new FakePermissionSystem(RuntimeEnvironment.getApplication());
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            // 每次都创建新的权限对象，这样就不会命中合规检查通过的缓存，每次请求都会走一遍合规检查
+            List<IPermission> permissions = Collections.singletonList(new CountingPermission());
+            FlowResult result = permissionSystem.request(activity, permissions);
+            assertEquals(1, result.getGrantedPermissions().size());
+        }
+        // 每次请求都做了合规检查
+        assertEquals(REQUEST_COUNT, CountingPermission.CHECK_COMPLIANCE_COUNT.get());
+        // 但是序列化实现的检查（反射获取 CREATOR 字段、解析泛型类型、调用 newArray）只做了一次
+        assertEquals(1, CountingPermission.NEW_ARRAY_COUNT.get());
+    }
+
+    /**
+     * 会记录合规检查次数和 CREATOR.newArray 调用次数的权限（默认已经授予，请求的时候不会弹出授权框）
+     */
+    public static final class CountingPermission extends DangerousPermission {
+
+        /** CREATOR.newArray 的调用次数 */
+        static final AtomicInteger NEW_ARRAY_COUNT = new AtomicInteger();
+
+        /** 合规检查的次数 */
+        static final AtomicInteger CHECK_COMPLIANCE_COUNT = new AtomicInteger();
+
+        public static final Parcelable.Creator<CountingPermission> CREATOR = new Parcelable.Creator<CountingPermission>() {
+
+            @Override
+            public CountingPermission createFromParcel(Parcel source) {
+                return new CountingPermission();
+            }
+
+            @Override
+            public CountingPermission[] newArray(int size) {
+                NEW_ARRAY_COUNT.incrementAndGet();
+                return new CountingPermission[size];
+            }
+        };
+
+        @NonNull
+        @Override
+        public String getPermissionName() {
+            return "com.hjq.permissions.test.COUNTING";
+        }
+
+        @Override
+        public int getFromAndroidVersion() {
+            return PermissionVersion.ANDROID_6;
+        }
+
+        @Override
+        public boolean isGrantedPermission(@NonNull Context context, boolean skipRequest) {
+            return true;
+        }
+
+        @Override
+        protected boolean isRegisterPermissionByManifestFile() {
+            return false;
+        }
+
+        @Override
+        public void checkCompliance(@NonNull Activity activity, @NonNull List<IPermission> requestPermissions,
+                                    @Nullable AndroidManifestInfo androidManifestInfo) {
+            CHECK_COMPLIANCE_COUNT.incrementAndGet();
+            super.checkCompliance(activity, requestPermissions, androidManifestInfo);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.hjq.permissions.tools;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.provider.Settings;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : Settings.Secure 组件列表设置项索引的测试
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class SecureSettingsComponentIndexTest {
+
+    private static final String SETTING_NAME = SecureSettingsComponentIndex.SETTING_ENABLED_ACCESSIBILITY_SERVICES;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.getApplication();
+        // 另外一个应用里面有一个和当前应用同名的类，当前应用的组件用的是简写的形式
+        Settings.Secure.putString(mContext.getContentResolver(), SETTING_NAME,
+            "com.other.app/com.hjq.permissions.demo.DemoService:" + mContext.getPackageName() + "/.OwnService");
+    }
+
+    @Test
+    public void exactMatchComparesPackageAndClass() {
+        assertTrue(SecureSettingsComponentIndex.containsComponent(mContext, SETTING_NAME,
+            new ComponentName("com.other.app", "com.hjq.permissions.demo.DemoService")));
+        // 类名相同，但是包名不同，不能算作是同一个组件
+        assertFalse(SecureSettingsComponentIndex.containsComponent(mContext, SETTING_NAME,
+            new ComponentName(mContext, "com.hjq.permissions.demo.DemoService")));
+        // 简写的类名会被补全成完整的类名
+        assertTrue(SecureSettingsComponentIndex.containsComponent(mContext, SETTING_NAME,
+            new ComponentName(mContext, mContext.getPackageName() + ".OwnService")));
+    }
+
+    @Test
+    public void packageFallbackMatchesAnyComponentOfPackage() {
+        assertTrue(SecureSettingsComponentIndex.containsPackageName(mContext, SETTING_NAME, mContext.getPackageName()));
+        assertTrue(SecureSettingsComponentIndex.containsPackageName(mContext, SETTING_NAME, "com.other.app"));
+        assertFalse(SecureSettingsComponentIndex.containsPackageName(mContext, SETTING_NAME, "com.hjq.permissions.demo"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.hjq.permissions.tools;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ *    author : Android 轮子哥
+ *    github : https://github.com/getActivity/XXPermissions
+ *    time   : 2025/08/01
+ *    desc   : 系统属性存储类的测试
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class SystemPropertyStoreTest {
+
+    /** 重复查询的次数 */
+    private static final int QUERY_COUNT = 1000;
+
+    @Test
+    public void fallbacksRunAtMostOncePerProcess() {
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            // 测试环境中并不存在这些厂商的属性，每次判断都会走到 getprop 命令和 build.prop 文件的兜底流程
+            assertFalse(PhoneRomUtils.isMiui());
+            assertFalse(PhoneRomUtils.isHyperOs());
+            assertFalse(PhoneRomUtils.isColorOs());
+            assertFalse(PhoneRomUtils.isOriginOs());
+            // 每次都查询一个不同的属性名称，这样就不会命中属性值的缓存
+            assertEquals("", SystemPropertyStore.getValue("ro.hjq.test.missing." + i));
+        }
+        assertEquals(1, SystemPropertyStore.getShellPropertiesReadCount());
+        assertEquals(1, SystemPropertyStore.getBuildPropertiesReadCount());
+    }
+}